@@ -0,0 +1,47 @@
+package com.techacademy;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+// AJPコネクタの設定(ajp.* で指定する)
+// 未指定の項目はTomcatの既定値のまま(HTTPコネクタの server.tomcat.* とは独立して調整できる)
+@Data
+@ConfigurationProperties(prefix = "ajp")
+public class AjpConnectorProperties {
+
+    /** AJPコネクタを追加するか */
+    private boolean enabled = true;
+
+    /** ポート番号 */
+    private int port = 8009;
+
+    /** secretによる保護を必須とするか */
+    private boolean secretRequired = false;
+
+    /** secret(secretRequired=true の場合にフロントのApacheと合わせる) */
+    private String secret;
+
+    /** 最大スレッド数 */
+    private Integer maxThreads;
+
+    /** 最小待機スレッド数 */
+    private Integer minSpareThreads;
+
+    /** 全スレッドが使用中の場合に接続を待たせる件数 */
+    private Integer acceptCount;
+
+    /** 同時接続数の上限 */
+    private Integer maxConnections;
+
+    /** 接続後、リクエストを受信するまでの待ち時間 */
+    private Duration connectionTimeout;
+
+    /** Keep-Aliveで次のリクエストを待つ時間(未指定の場合はconnectionTimeoutと同じ) */
+    private Duration keepAliveTimeout;
+
+    /** HTTPコネクタとスレッドプールを共有するか(共有時は server.tomcat.threads.* の大きさとなり、maxThreads等は使われない) */
+    private boolean sharedExecutor = false;
+}
@@ -0,0 +1,118 @@
+package com.techacademy;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// パスワードのハッシュ化・照合を専用のスレッドプールで実行するPasswordEncoder
+// (BCryptの計算でリクエスト処理スレッドとCPUを使い切らないよう、同時実行数と待ち行列を制限する)
+// 待ち時間の上限を過ぎた場合、まだ実行されていない処理は待ち行列から取り除く
+// 実行中のBCryptは割り込みで中断できないため、そのまま完了させる(完了までワーカーを使用し続け、同時実行数に含まれる)
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long waitTimeoutMillis;
+
+    // 待ち行列に入ってから実行されるまでの時間
+    private final Timer waitTimer;
+    // 混雑により受け付けなかった件数
+    private final Counter rejectedCounter;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity, long waitTimeoutMillis,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-encoder-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("password.encoder.queue.size", executor, e -> e.getQueue().size())
+                .description("パスワード処理の待ち件数").register(meterRegistry);
+        Gauge.builder("password.encoder.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("パスワード処理の実行中件数").register(meterRegistry);
+        this.waitTimer = Timer.builder("password.encoder.wait").description("パスワード処理の待ち時間")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.encoder.rejected").description("混雑により受け付けなかった件数")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    // 専用スレッドプールで実行し、結果を待つ
+    private <T> T execute(Callable<T> task) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            // 待ち行列が一杯の場合は待たずにエラーとする
+            rejectedCounter.increment();
+            throw new PasswordEncoderBusyException("Password encoder queue is full", e);
+        }
+
+        try {
+            return future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            abandon(future);
+            rejectedCounter.increment();
+            throw new PasswordEncoderBusyException("Password encoder timed out", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandon(future);
+            throw new PasswordEncoderBusyException("Password encoder interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // 結果を待たなくなった処理の後始末
+    // 未実行であれば待ち行列から取り除いて枠を空ける(実行中の場合は取り除けず、完了まで実行される)
+    private void abandon(Future<?> future) {
+        future.cancel(false);
+        executor.remove((Runnable) future);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,42 @@
+package com.techacademy;
+
+import java.util.Locale;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Hibernateが発行するSQLの件数をエンドポイント・種類(select/insert/update/delete)ごとに数える
+// SQLは変更しない(ネイティブクエリを含め、準備される全てのSQLが対象)
+public class EndpointStatementInspector implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient MeterRegistry meterRegistry;
+
+    public EndpointStatementInspector(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Counter.builder("hibernate.statements").description("発行したSQLの件数")
+                .tag(EndpointTags.TAG_NAME, EndpointTags.currentEndpoint()).tag("type", statementType(sql))
+                .register(meterRegistry).increment();
+        return sql;
+    }
+
+    private static String statementType(String sql) {
+        String head = sql.stripLeading();
+        int end = 0;
+        while (end < head.length() && Character.isLetter(head.charAt(end))) {
+            end++;
+        }
+        String keyword = head.substring(0, end).toLowerCase(Locale.ROOT);
+        return switch (keyword) {
+        case "select", "insert", "update", "delete" -> keyword;
+        default -> "other";
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.techacademy;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+// メトリクスに付与するエンドポイント(リクエストのURLパターン 例: /reports/{id}/)
+// パス変数を含まないため、タグの値の種類はエンドポイントの数に限られる
+public final class EndpointTags {
+
+    public static final String TAG_NAME = "endpoint";
+
+    // リクエスト外(起動時・スケジュール処理等)、またはハンドラーが決まる前
+    public static final String NONE = "none";
+
+    private EndpointTags() {
+    }
+
+    public static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return NONE;
+        }
+        Object pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        return pattern != null ? pattern.toString() : NONE;
+    }
+}
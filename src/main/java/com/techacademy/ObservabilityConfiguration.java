@@ -0,0 +1,43 @@
+package com.techacademy;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationFilter;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+
+// メトリクス・トレースの設定
+// @Observed を付けたサービスの処理時間(例: report.service)と、HibernateのSQL件数(hibernate.statements)に
+// エンドポイントのタグを付け、どの画面の処理がDB・パスワード処理・画面表示のどこで遅いかを切り分けられるようにする
+@Configuration
+public class ObservabilityConfiguration {
+
+    /** @Observed を付けたクラス・メソッドの計測 */
+    @Bean
+    public ObservedAspect observedAspect(ObservationRegistry observationRegistry) {
+        return new ObservedAspect(observationRegistry);
+    }
+
+    /** @Observed の計測にエンドポイントのタグを付ける */
+    @Bean
+    public ObservationFilter endpointObservationFilter() {
+        return context -> {
+            if (context instanceof ObservedAspect.ObservedAspectContext) {
+                context.addLowCardinalityKeyValue(KeyValue.of(EndpointTags.TAG_NAME, EndpointTags.currentEndpoint()));
+            }
+            return context;
+        };
+    }
+
+    /** Hibernateが発行するSQLの件数をエンドポイントごとに数える */
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(MeterRegistry meterRegistry) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                new EndpointStatementInspector(meterRegistry));
+    }
+}
@@ -0,0 +1,13 @@
+package com.techacademy;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+// パスワード処理の専用スレッドプールが混雑していて受け付けられなかった場合の例外
+// (ログイン時は認証失敗として扱い、ログイン画面で再試行を促す)
+public class PasswordEncoderBusyException extends AuthenticationServiceException {
+    private static final long serialVersionUID = 1L;
+
+    public PasswordEncoderBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,37 +1,85 @@
 package com.techacademy;
 
-import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.authentication.ExceptionMappingAuthenticationFailureHandler;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import com.techacademy.service.EmployeeService;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 public class SecurityConfig {
     /** 認証・認可設定 */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, EmployeeService employeeService,
+            @Value("${management.server.port:-1}") int managementPort) throws Exception {
+        // 監視用ポート(management.server.port)への要求 内部向けのアドレス(management.server.address)だけで待ち受ける
+        RequestMatcher managementPortRequest = request -> managementPort > 0 && request.getLocalPort() == managementPort;
+
+        // ログイン失敗時のリダイレクト先(パスワード処理が混雑している場合は再試行を促す)
+        ExceptionMappingAuthenticationFailureHandler failureHandler = new ExceptionMappingAuthenticationFailureHandler();
+        failureHandler.setDefaultFailureUrl("/login?error");
+        failureHandler.setExceptionMappings(Map.of(PasswordEncoderBusyException.class.getName(), "/login?busy"));
+
         http.formLogin(login -> login.loginProcessingUrl("/login") // 従業員番号・パスワードの送信先
                 .loginPage("/login") // ログイン画面
                 .defaultSuccessUrl("/reports") // ログイン成功後のリダイレクト先
-                .failureUrl("/login?error") // ログイン失敗時のリダイレクト先
+                .failureHandler(failureHandler) // ログイン失敗時のリダイレクト先
                 .permitAll() // ログイン画面は未ログインでアクセス可
         ).logout(logout -> logout.logoutSuccessUrl("/login") // ログアウト後のリダイレクト先
+        ).csrf(csrf -> csrf.ignoringRequestMatchers(managementPortRequest) // 監視用ポートは画面のフォームを使用しない
         ).authorizeHttpRequests(
-                auth -> auth.requestMatchers(PathRequest.toStaticResources().atCommonLocations()).permitAll() // css等は未ログインでアクセス可
-                        .requestMatchers("/employees/**").hasAnyAuthority("ADMIN") //従業員関連はADMINだけ
+                // css等はSpring Securityのフィルタを通さない(StaticResourceConfiguration)
+                auth -> auth.requestMatchers("/employees/**").hasAnyAuthority("ADMIN") //従業員関連はADMINだけ
+                        // ADMINだけの日報関連ページは /reports/** より前に指定する(先に一致した指定が適用されるため)
+                        .requestMatchers("/reports/export/**").hasAnyAuthority("ADMIN") // 日報CSVエクスポートへのアクセスはADMIN
+                        .requestMatchers("/reports/stats/**").hasAnyAuthority("ADMIN") // 日報集計へのアクセスはADMIN
+                        .requestMatchers("/reports/import/**").hasAnyAuthority("ADMIN") // 日報CSVインポートへのアクセスはADMIN
                         .requestMatchers("/reports/**").hasAnyAuthority("ADMIN", "GENERAL") // 日報関連ページへのアクセスはADMINとGENERAL
-                        .requestMatchers("/reports/export/csv").hasAnyAuthority("ADMIN") // 日報CSVエクスポートへのアクセスはADMIN
+                        .requestMatchers(managementPortRequest).permitAll() // 監視用ポート(Prometheusの収集等)はネットワークで制限するためログイン不要
+                        .requestMatchers("/actuator/health").permitAll() // 死活監視は未ログインでアクセス可
+                        .requestMatchers("/actuator/**").hasAnyAuthority("ADMIN") // 監視用ポートを使用しない場合、公開ポートの監視用エンドポイントはADMINだけ
                         .anyRequest().authenticated()); // その他はログイン必要
 
+        // 従業員の更新・削除をログイン中のユーザー情報に反映する(権限の確認より前)
+        http.addFilterBefore(new StalePrincipalFilter(employeeService), AuthorizationFilter.class);
+
         return http.build();
     }
 
     /** ハッシュ化したパスワードの比較に使用する */
+    // BCryptの計算は同時実行数と待ち行列を制限した専用スレッドプールで行う
+    // ハッシュは {bcrypt} 接頭辞付きで保存し、強度が設定値より低いハッシュはログイン成功時に再ハッシュする
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+            @Value("${security.password.bcrypt-strength:10}") int bcryptStrength,
+            @Value("${security.password.pool-size:0}") int poolSize,
+            @Value("${security.password.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password.wait-timeout:5000}") long waitTimeoutMillis) {
+        if (poolSize < 1) {
+            // 未指定の場合はCPUコア数の半分(リクエスト処理用にCPUを残す)
+            poolSize = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+
+        Map<String, PasswordEncoder> encoders = new HashMap<String, PasswordEncoder>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(bcryptStrength));
+        DelegatingPasswordEncoder delegatingPasswordEncoder = new DelegatingPasswordEncoder("bcrypt", encoders);
+        // 接頭辞のない既存のハッシュ($2a$10$...)はBCryptとして照合する
+        delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(bcryptStrength));
+
+        return new BoundedPasswordEncoder(delegatingPasswordEncoder, poolSize, queueCapacity, waitTimeoutMillis,
+                meterRegistry);
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.techacademy;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.logout.SecurityContextLogoutHandler;
+import org.springframework.security.web.context.DelegatingSecurityContextRepository;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.techacademy.entity.Employee;
+import com.techacademy.service.EmployeeService;
+import com.techacademy.service.UserDetail;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// セッションに保存されたログインユーザー情報(UserDetail)が古くなっていないかを確認するフィルタ
+// ログイン時点の従業員の更新日時(版)と現在の更新日時を比べ、従業員が更新された場合(権限・氏名の変更)は作り直し、
+// 削除された場合はログアウトさせる(以降の画面はログイン画面へリダイレクトされる)
+// 従業員はキャッシュから取得するため、通常はSQLを実行しない
+public class StalePrincipalFilter extends OncePerRequestFilter {
+
+    private final EmployeeService employeeService;
+    // Spring Securityの既定と同じ保存先(リクエスト属性とセッション)
+    private final SecurityContextRepository securityContextRepository = new DelegatingSecurityContextRepository(
+            new RequestAttributeSecurityContextRepository(), new HttpSessionSecurityContextRepository());
+    private final SecurityContextLogoutHandler logoutHandler = new SecurityContextLogoutHandler();
+
+    public StalePrincipalFilter(EmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetail userDetail) {
+            Employee employee = employeeService.findByCode(userDetail.getCode());
+            if (employee == null) {
+                // 削除された従業員はログアウト(セッションを破棄する)
+                logoutHandler.logout(request, response, authentication);
+            } else if (!Objects.equals(employee.getUpdatedAt(), userDetail.getVersion())) {
+                refresh(employee, authentication, request, response);
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // 現在の従業員の内容でログインユーザー情報を作り直し、セッションに保存する
+    private void refresh(Employee employee, Authentication authentication, HttpServletRequest request,
+            HttpServletResponse response) {
+        UserDetail refreshed = new UserDetail(employee);
+        refreshed.eraseCredentials();
+        UsernamePasswordAuthenticationToken token = UsernamePasswordAuthenticationToken.authenticated(refreshed, null,
+                refreshed.getAuthorities());
+        token.setDetails(authentication.getDetails());
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(token);
+        SecurityContextHolder.setContext(context);
+        securityContextRepository.saveContext(context, request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // css・jsはログインユーザー情報を使用しない
+        String path = request.getServletPath();
+        return path.startsWith("/css/") || path.startsWith("/js/");
+    }
+}
@@ -0,0 +1,56 @@
+package com.techacademy;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+// 静的ファイル(css・js)の配信
+// URLに内容のハッシュを付けて(/css/bootstrap.min-<hash>.css)、ブラウザに長期間キャッシュさせる
+// 内容が変わるとURLも変わるため、再検証は不要(immutable)
+// 圧縮済みのファイル(.gz・.br)が同じ場所にあれば、ブラウザの対応に応じてそのまま返す
+// ※css・jsを変更した場合は .gz も作り直すこと(gzip -9 -k -n -f bootstrap.min.css)
+@Configuration
+public class StaticResourceConfiguration implements WebMvcConfigurer {
+
+    private static final String[] PATTERNS = { "/css/**", "/js/**" };
+    private static final String[] LOCATIONS = { "classpath:/static/css/", "classpath:/static/js/" };
+
+    // ブラウザにキャッシュさせる期間
+    @Value("${static-resources.cache-period:365d}")
+    private Duration cachePeriod;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        for (int i = 0; i < PATTERNS.length; i++) {
+            registry.addResourceHandler(PATTERNS[i]).addResourceLocations(LOCATIONS[i])
+                    .setCacheControl(CacheControl.maxAge(cachePeriod).cachePublic().immutable())
+                    // 本番では解決結果をキャッシュする(ハッシュの計算はファイルごとに1回)
+                    .resourceChain(true)
+                    .addResolver(new EncodedResourceResolver())
+                    .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+        }
+    }
+
+    /** テンプレートの @{/css/...} 等をハッシュ付きのURLに書き換える */
+    @Bean
+    public FilterRegistrationBean<ResourceUrlEncodingFilter> resourceUrlEncodingFilter() {
+        return new FilterRegistrationBean<ResourceUrlEncodingFilter>(new ResourceUrlEncodingFilter());
+    }
+
+    /** 静的ファイルはSpring Securityのフィルタを通さない(ログイン不要・セッションも使用しない) */
+    @Bean
+    public WebSecurityCustomizer staticResourcesSecurityCustomizer() {
+        return web -> web.ignoring().requestMatchers(PathRequest.toStaticResources().atCommonLocations());
+    }
+}
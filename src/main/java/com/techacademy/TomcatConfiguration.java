@@ -1,16 +1,52 @@
 package com.techacademy; // ご自身の環境に合わせてください
 
+import java.util.concurrent.TimeUnit;
+
 import org.apache.catalina.connector.Connector;
 import org.apache.coyote.ajp.AjpNio2Protocol;
+import org.apache.tomcat.util.threads.TaskQueue;
+import org.apache.tomcat.util.threads.TaskThreadFactory;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
 import org.springframework.boot.web.server.WebServerFactoryCustomizer;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
-public class TomcatConfiguration implements WebServerFactoryCustomizer<TomcatServletWebServerFactory> {
+@EnableConfigurationProperties(AjpConnectorProperties.class)
+public class TomcatConfiguration implements WebServerFactoryCustomizer<TomcatServletWebServerFactory>, DisposableBean {
+
+    private final AjpConnectorProperties ajpProperties;
+    private final ServerProperties serverProperties;
+
+    // 仮想スレッドでリクエストを処理するか(HTTPコネクタはSpring Bootが設定する)
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    // HTTP・AJPコネクタで共有するスレッドプール(ajp.shared-executor=true の場合のみ)
+    private ThreadPoolExecutor sharedExecutor;
+
+    public TomcatConfiguration(AjpConnectorProperties ajpProperties, ServerProperties serverProperties) {
+        this.ajpProperties = ajpProperties;
+        this.serverProperties = serverProperties;
+    }
 
     @Override
     public void customize(TomcatServletWebServerFactory factory) {
+        if (!ajpProperties.isEnabled()) {
+            return;
+        }
+
+        // 仮想スレッド利用時はスレッドプールを共有しない(それぞれ仮想スレッドで処理する)
+        if (ajpProperties.isSharedExecutor() && !virtualThreadsEnabled) {
+            sharedExecutor = createSharedExecutor();
+            factory.addConnectorCustomizers(connector -> connector.getProtocolHandler().setExecutor(sharedExecutor));
+        }
+
         // Tomcatとの通信手段にAJPを追加
         factory.addAdditionalTomcatConnectors(ajpConnector());
     }
@@ -19,14 +55,66 @@ public class TomcatConfiguration implements WebServerFactoryCustomizer<TomcatSer
         // AJPの利用を宣言
         Connector connector = new Connector("org.apache.coyote.ajp.AjpNio2Protocol");
 
-        // AJPの通信で8009番ポートを使うための指定
-        connector.setPort(8009);
+        // AJPの通信で使うポートの指定(既定は8009番)
+        connector.setPort(ajpProperties.getPort());
 
-        // secretという保護機能を利用しないようにする設定
+        // secretという保護機能を利用するかの設定(既定は利用しない)
         AjpNio2Protocol protocol = (AjpNio2Protocol) connector.getProtocolHandler();
-        protocol.setSecretRequired(false);
+        protocol.setSecretRequired(ajpProperties.isSecretRequired());
+        if (ajpProperties.getSecret() != null) {
+            protocol.setSecret(ajpProperties.getSecret());
+        }
+
+        // 接続数・待ち時間(未指定の項目はTomcatの既定値)
+        if (ajpProperties.getAcceptCount() != null) {
+            protocol.setAcceptCount(ajpProperties.getAcceptCount());
+        }
+        if (ajpProperties.getMaxConnections() != null) {
+            protocol.setMaxConnections(ajpProperties.getMaxConnections());
+        }
+        if (ajpProperties.getConnectionTimeout() != null) {
+            protocol.setConnectionTimeout((int) ajpProperties.getConnectionTimeout().toMillis());
+        }
+        if (ajpProperties.getKeepAliveTimeout() != null) {
+            protocol.setKeepAliveTimeout((int) ajpProperties.getKeepAliveTimeout().toMillis());
+        }
+
+        if (virtualThreadsEnabled) {
+            // AJPコネクタも仮想スレッドで処理する(追加コネクタにはSpring Bootの設定が適用されないため)
+            protocol.setExecutor(new VirtualThreadExecutor("tomcat-ajp-handler-"));
+        } else if (sharedExecutor != null) {
+            protocol.setExecutor(sharedExecutor);
+        } else {
+            // AJP専用のスレッドプールの大きさ
+            if (ajpProperties.getMaxThreads() != null) {
+                protocol.setMaxThreads(ajpProperties.getMaxThreads());
+            }
+            if (ajpProperties.getMinSpareThreads() != null) {
+                protocol.setMinSpareThreads(ajpProperties.getMinSpareThreads());
+            }
+        }
 
         return connector;
     }
 
-}
\ No newline at end of file
+    // Tomcatがコネクタごとに作成するものと同じ構成のスレッドプール(大きさは server.tomcat.threads.*)
+    // 待ち行列はTomcatの既定と同じく上限なし(Spring Boot 3.2 には待ち行列の上限の設定がない)
+    private ThreadPoolExecutor createSharedExecutor() {
+        ServerProperties.Tomcat.Threads threads = serverProperties.getTomcat().getThreads();
+        TaskQueue taskQueue = new TaskQueue();
+        TaskThreadFactory threadFactory = new TaskThreadFactory("tomcat-shared-exec-", true, Thread.NORM_PRIORITY);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads.getMinSpare(), threads.getMax(), 60,
+                TimeUnit.SECONDS, taskQueue, threadFactory);
+        taskQueue.setParent(executor);
+        return executor;
+    }
+
+    @Override
+    public void destroy() {
+        // 外部から設定したスレッドプールはTomcatが停止しないため、ここで停止する
+        if (sharedExecutor != null) {
+            sharedExecutor.shutdownNow();
+        }
+    }
+
+}
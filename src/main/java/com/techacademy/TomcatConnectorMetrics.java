@@ -0,0 +1,74 @@
+package com.techacademy;
+
+import java.util.concurrent.Executor;
+import java.util.function.ToDoubleFunction;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+// コネクタ(HTTP・AJP)ごとのスレッド・待ち行列・接続数をメトリクスとして公開する
+// タグ connector=http/ajp と port で区別する(例: /actuator/metrics/tomcat.connector.threads.busy?tag=connector:ajp)
+@Component
+public class TomcatConnectorMetrics implements ApplicationListener<WebServerInitializedEvent> {
+
+    private final MeterRegistry meterRegistry;
+
+    public TomcatConnectorMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void onApplicationEvent(WebServerInitializedEvent event) {
+        // コネクタは組み込みTomcatの起動後にしか取得できない
+        if (!(event.getWebServer() instanceof TomcatWebServer webServer)) {
+            return;
+        }
+        for (Connector connector : webServer.getTomcat().getService().findConnectors()) {
+            if (connector.getProtocolHandler() instanceof AbstractProtocol<?> protocol) {
+                bind(connector, protocol);
+            }
+        }
+    }
+
+    private void bind(Connector connector, AbstractProtocol<?> protocol) {
+        String type = connector.getProtocolHandlerClassName().contains("Ajp") ? "ajp" : "http";
+        Tags tags = Tags.of("connector", type, "port", String.valueOf(connector.getLocalPort()));
+
+        // スレッドプール(仮想スレッドの場合は値なし)
+        gauge("tomcat.connector.threads.busy", "処理中のスレッド数", tags, protocol,
+                p -> executorValue(p, ThreadPoolExecutor::getActiveCount));
+        gauge("tomcat.connector.threads.current", "作成済みのスレッド数", tags, protocol,
+                p -> executorValue(p, ThreadPoolExecutor::getPoolSize));
+        gauge("tomcat.connector.threads.max", "最大スレッド数", tags, protocol,
+                p -> executorValue(p, ThreadPoolExecutor::getMaximumPoolSize));
+        gauge("tomcat.connector.queue.size", "スレッドの空きを待っている件数", tags, protocol,
+                p -> executorValue(p, e -> e.getQueue().size()));
+
+        // 接続数
+        gauge("tomcat.connector.connections.current", "接続数", tags, protocol, AbstractProtocol::getConnectionCount);
+        gauge("tomcat.connector.connections.max", "接続数の上限", tags, protocol, AbstractProtocol::getMaxConnections);
+    }
+
+    private void gauge(String name, String description, Tags tags, AbstractProtocol<?> protocol,
+            ToDoubleFunction<AbstractProtocol<?>> value) {
+        Gauge.builder(name, protocol, value).description(description).tags(tags).register(meterRegistry);
+    }
+
+    private static double executorValue(ProtocolHandler protocol, ToDoubleFunction<ThreadPoolExecutor> value) {
+        Executor executor = protocol.getExecutor();
+        if (executor instanceof ThreadPoolExecutor threadPoolExecutor) {
+            return value.applyAsDouble(threadPoolExecutor);
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,33 @@
+package com.techacademy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// 仮想スレッド利用時の設定(spring.threads.virtual.enabled=true の場合のみ有効)
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    /** 同時処理リクエスト数の制限 */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(MeterRegistry meterRegistry,
+            @Value("${virtual-threads.max-concurrent-requests:50}") int maxConcurrentRequests,
+            @Value("${virtual-threads.acquire-timeout:5000}") long acquireTimeoutMillis) {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(maxConcurrentRequests, acquireTimeoutMillis);
+        Gauge.builder("http.server.requests.permits.available", filter, ConcurrencyLimitFilter::getAvailablePermits)
+                .description("同時処理リクエスト数の空き").register(meterRegistry);
+
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<ConcurrencyLimitFilter>(
+                filter);
+        // Spring Security(ログイン時のDBアクセスを含む)より前に適用する
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
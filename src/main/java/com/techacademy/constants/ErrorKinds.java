@@ -16,6 +16,10 @@ public enum ErrorKinds {
     DUPLICATE_ERROR,
     // ログイン中削除チェックエラー
     LOGINCHECK_ERROR,
+    // パスワード処理混雑エラー
+    PASSWORD_BUSY_ERROR,
+    // 日報エクスポート混雑エラー
+    EXPORT_BUSY_ERROR,
 
 // 日付チェックエラー
     DATECHECK_ERROR,
@@ -27,6 +27,10 @@ public class ErrorMessage {
             put(ErrorKinds.DUPLICATE_ERROR, new ArrayList<String>(Arrays.asList("codeError", "既に登録されている社員番号です")));
             // ログイン中の従業員削除チェック用エラーメッセージ
             put(ErrorKinds.LOGINCHECK_ERROR, new ArrayList<String>(Arrays.asList("deleteError", "ログイン中の従業員を削除することは出来ません")));
+            // パスワード処理混雑時のエラーメッセージ
+            put(ErrorKinds.PASSWORD_BUSY_ERROR, new ArrayList<String>(Arrays.asList("passwordError", "混雑しています。しばらく待ってから再度お試しください")));
+            // 日報エクスポート混雑時のエラーメッセージ
+            put(ErrorKinds.EXPORT_BUSY_ERROR, new ArrayList<String>(Arrays.asList("exportError", "エクスポートが混雑しています。しばらく待ってから再度お試しください")));
             // 同一日付チェック用エラーメッセージ
             put(ErrorKinds.DATECHECK_ERROR, new ArrayList<String>(Arrays.asList("reportDateError", "既に登録されている日付です")));
             // 日報日付空白チェック用エラーメッセージ
@@ -40,7 +44,7 @@ public class ErrorMessage {
             // 日報内容600文字桁数チェック用エラーメッセージ
             put(ErrorKinds.CONTENTCHECK_RANGE_ERROR, new ArrayList<String>(Arrays.asList("reportContentRangekError", "600文字以下で入力してください")));
          // 日報新規作成で 日付重複エラー用エラーメッセージ
-            put(ErrorKinds.DUPLICATE_DATE_ERROR, new ArrayList<String>(Arrays.asList("reportDateCheckError", "aaaaa既に登録されている日付です")));
+            put(ErrorKinds.DUPLICATE_DATE_ERROR, new ArrayList<String>(Arrays.asList("reportDateCheckError", "既に登録されている日付です")));
 
 
 
@@ -0,0 +1,51 @@
+package com.techacademy.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.techacademy.repository.UpdateStamp;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+// 画面の条件付きGET(ETag・Last-Modified)
+// 表示内容の最終更新日時・件数が前回の表示から変わっていなければ、内容を読み込まず・描画せずに304を返す
+final class ConditionalRequests {
+
+    // ブラウザにのみ保存させ(private)、表示のたびに再検証させる(no-cache)
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private ConditionalRequests() {
+    }
+
+    // 変更されていない場合はtrue(呼び出し側はnullを返すこと)
+    // 画面はログインユーザーとセッション(埋め込まれたCSRFトークン)によっても変わるため、ETagにはこれらも含める
+    // 同じ内容でもCSRFトークンの表記は描画ごとに異なるため、弱いETagとする
+    static boolean checkNotModified(ServletWebRequest request, List<UpdateStamp> stamps) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+
+        StringBuilder source = new StringBuilder().append(request.getRemoteUser()).append(':')
+                .append(request.getSessionId());
+        LocalDateTime lastModified = null;
+        for (UpdateStamp stamp : stamps) {
+            source.append(':').append(stamp);
+            if (stamp.getUpdatedAt() != null && (lastModified == null || stamp.getUpdatedAt().isAfter(lastModified))) {
+                lastModified = stamp.getUpdatedAt();
+            }
+        }
+
+        String etag = "W/\"" + DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+        long lastModifiedTimestamp = lastModified == null ? -1
+                : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return request.checkNotModified(etag, lastModifiedTimestamp);
+    }
+}
@@ -1,5 +1,8 @@
 package com.techacademy.controller;
 
+import java.io.IOException;
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -12,11 +15,16 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
 import com.techacademy.constants.ErrorKinds;
 import com.techacademy.constants.ErrorMessage;
 
 import com.techacademy.entity.Employee;
+import com.techacademy.repository.UpdateStamp;
+import com.techacademy.service.EmployeeImportService;
 import com.techacademy.service.EmployeeService;
 import com.techacademy.service.UserDetail;
 
@@ -26,17 +34,24 @@ import com.techacademy.service.UserDetail;
 public class EmployeeController {
 
     private final EmployeeService employeeService;
+    private final EmployeeImportService employeeImportService;
 
     @Autowired
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, EmployeeImportService employeeImportService) {
         this.employeeService = employeeService;
+        this.employeeImportService = employeeImportService;
     }
 
 
 
     // 従業員一覧画面
     @GetMapping
-    public String list(Model model) {
+    public String list(Model model, ServletWebRequest webRequest) {
+        // 従業員が前回の表示から変わっていなければ、一覧を取得せずに304を返す
+        if (ConditionalRequests.checkNotModified(webRequest, List.of(employeeService.getEmployeeListStamp()))) {
+            return null;
+        }
+
         model.addAttribute("listSize", employeeService.findAll().size());
         model.addAttribute("employeeList", employeeService.findAll());
 
@@ -47,9 +62,15 @@ public class EmployeeController {
 
     // 従業員詳細画面
     @GetMapping(value = "/{code}/")
-    public String detail(@PathVariable String code, Model model) {
+    public String detail(@PathVariable String code, Model model, ServletWebRequest webRequest) {
+        // 従業員はキャッシュから取得するため、更新日時の確認にSQLは実行しない
+        Employee employee = employeeService.findByCode(code);
+        if (employee != null && ConditionalRequests.checkNotModified(webRequest,
+                List.of(new UpdateStamp(employee.getUpdatedAt(), 1L)))) {
+            return null;
+        }
 
-        model.addAttribute("employee", employeeService.findByCode(code));
+        model.addAttribute("employee", employee);
         return "employees/detail";
     }
 
@@ -107,6 +128,27 @@ public class EmployeeController {
 
 
 
+    // 従業員CSV一括登録画面の表示
+    @GetMapping(value = "/import")
+    public String importForm() {
+        return "employees/import";
+    }
+
+
+
+    // 従業員CSV一括登録処理(登録できなかった行は画面に表示する)
+    @PostMapping(value = "/import")
+    public String importEmployees(@RequestParam("file") MultipartFile file, Model model) throws IOException {
+        if (file.isEmpty()) {
+            model.addAttribute("errorMessage", "ファイルを選択してください");
+            return "employees/import";
+        }
+        model.addAttribute("importResult", employeeImportService.importCsv(file.getInputStream()));
+        return "employees/import";
+    }
+
+
+
     // 従業員更新画面を表示する
     @GetMapping(value = "/{code}/update")
     public String update(@PathVariable String code, Model model) {
@@ -158,7 +200,7 @@ public class EmployeeController {
         if (ErrorMessage.contains(result)) {
             model.addAttribute(ErrorMessage.getErrorName(result), ErrorMessage.getErrorValue(result));
             model.addAttribute("employee", employeeService.findByCode(code));
-            return detail(code, model);
+            return "employees/detail";
         }
 
         return "redirect:/employees";
@@ -0,0 +1,87 @@
+package com.techacademy.controller;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.apache.catalina.Globals;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// 作成済みファイルのダウンロード(Rangeによる途中からの再開に対応)
+// Tomcatのsendfileが使える場合(HTTPコネクタ)はファイルの送信をTomcatに任せ、カーネル内でソケットへ直接コピーさせる
+// 使えない場合(AJPコネクタ等)は FileChannel#transferTo で応答に書き出す
+final class FileDownloads {
+
+    private FileDownloads() {
+    }
+
+    // etagはファイルの内容ごとに一意な値(If-Range の判定に使用する)
+    static void send(HttpServletRequest request, HttpServletResponse response, Path file, String fileName,
+            String contentType, String etag) throws IOException {
+        long length = Files.size(file);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, Files.getLastModifiedTime(file).toMillis());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(fileName).build().toString());
+        response.setContentType(contentType);
+
+        // 送信範囲(endは含まない) 範囲指定が1つの場合のみ部分応答とし、複数・不正な指定は無視して全体を返す
+        long start = 0;
+        long end = length;
+        List<HttpRange> ranges = parseRanges(request, etag);
+        if (ranges.size() == 1) {
+            HttpRange range = ranges.get(0);
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length) + 1;
+            if (start >= length || start >= end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+        }
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(Globals.SENDFILE_SUPPORTED_ATTR))) {
+            request.setAttribute(Globals.SENDFILE_FILENAME_ATTR, file.toAbsolutePath().toString());
+            request.setAttribute(Globals.SENDFILE_FILE_START_ATTR, start);
+            request.setAttribute(Globals.SENDFILE_FILE_END_ATTR, end);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long position = start; position < end;) {
+                position += channel.transferTo(position, end - position, out);
+            }
+        }
+    }
+
+    // If-Range が指定され、ファイルが変わっている場合は範囲指定を無視する
+    private static List<HttpRange> parseRanges(HttpServletRequest request, String etag) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range == null || (ifRange != null && !ifRange.equals(etag))) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+}
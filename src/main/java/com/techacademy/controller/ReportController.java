@@ -1,10 +1,12 @@
 package com.techacademy.controller;
 
 import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -15,13 +17,21 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import jakarta.servlet.http.HttpServletResponse;
 
-import javax.servlet.http.HttpServletResponse;
 import com.techacademy.constants.ErrorKinds;
 import com.techacademy.constants.ErrorMessage;
-import com.techacademy.entity.Employee;
 import com.techacademy.entity.Report;
+import com.techacademy.repository.ReportFilter;
+import com.techacademy.repository.UpdateStamp;
+import com.techacademy.service.RenderedFragmentCache;
+import com.techacademy.service.ReportImportService;
+import com.techacademy.service.ReportPage;
 import com.techacademy.service.ReportService;
 import com.techacademy.service.UserDetail;
 
@@ -31,26 +41,85 @@ import com.techacademy.service.UserDetail;
 public class ReportController {
 
     private final ReportService reportService;
+    private final ReportImportService reportImportService;
+    private final RenderedFragmentCache renderedFragmentCache;
 
     @Autowired
-    public ReportController(ReportService reportService) {
+    public ReportController(ReportService reportService, ReportImportService reportImportService,
+            RenderedFragmentCache renderedFragmentCache) {
         this.reportService = reportService;
+        this.reportImportService = reportImportService;
+        this.renderedFragmentCache = renderedFragmentCache;
     }
 
 
-    // ■■ ROLEによるフィルタ 日報一覧画面の表示
+    // ■■ ROLEによるフィルタ 日報一覧画面の表示(キーセットページング)
+    // 日付の範囲・社員番号・タイトル(前方一致)で絞り込む 条件はURLに保持し、ページ移動でも引き継ぐ
     @GetMapping
-    public String list(@AuthenticationPrincipal UserDetail userDetail, Model model) {
-        // ログインユーザーの従業員情報を取得
-        Employee loggedInUser = userDetail.getEmployee();
-        // ユーザーの権限に応じて表示する日報を取得
-        List<Report> reportList = reportService.getReportsForUser(loggedInUser);
+    public String list(@AuthenticationPrincipal UserDetail userDetail,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate cursorDate,
+            @RequestParam(required = false) Integer cursorId,
+            @RequestParam(defaultValue = "next") String direction,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String employeeCode, @RequestParam(required = false) String title,
+            Model model, ServletWebRequest webRequest) {
+        // 表示範囲の日報・従業員が前回の表示から変わっていなければ、一覧を取得せずに304を返す
+        if (ConditionalRequests.checkNotModified(webRequest, reportService.getReportListStamps(userDetail))) {
+            return null;
+        }
+
+        // ユーザーの権限に応じて表示する日報を1ページ分取得
+        ReportFilter filter = new ReportFilter(from, to, employeeCode, title);
+        ReportPage reportPage = reportService.getReportPageForUser(userDetail, filter, cursorDate, cursorId,
+                "prev".equals(direction), size);
         // モデルに日報リストを追加
-        model.addAttribute("reportList", reportList);
-        model.addAttribute("listSize", reportList.size());
+        model.addAttribute("reportPage", reportPage);
+        model.addAttribute("reportList", reportPage.getReports());
+        model.addAttribute("listSize", reportPage.getReports().size());
+        model.addAttribute("pageSize", reportService.resolvePageSize(size));
+        model.addAttribute("filter", filter);
+        model.addAttribute("filterQuery", toQuery(filter));
         return "reports/list";
     }
 
+    // 絞り込み条件をページ移動のリンクに付加するクエリ文字列とする(条件がない場合は空文字)
+    private static String toQuery(ReportFilter filter) {
+        if (filter.isEmpty()) {
+            return "";
+        }
+        UriComponentsBuilder builder = UriComponentsBuilder.newInstance();
+        if (filter.getDateFrom() != null) {
+            builder.queryParam("from", filter.getDateFrom());
+        }
+        if (filter.getDateTo() != null) {
+            builder.queryParam("to", filter.getDateTo());
+        }
+        if (filter.getEmployeeCode() != null) {
+            builder.queryParam("employeeCode", filter.getEmployeeCode());
+        }
+        if (filter.getTitlePrefix() != null) {
+            builder.queryParam("title", filter.getTitlePrefix());
+        }
+        return "&" + builder.encode().build().getQuery();
+    }
+
+
+
+    // ■■ 日報の全文検索画面(タイトル・内容) 権限による絞り込みは日報一覧と同じ
+    @GetMapping("/search")
+    public String search(@AuthenticationPrincipal UserDetail userDetail,
+            @RequestParam(name = "q", defaultValue = "") String keywords,
+            @RequestParam(required = false) Integer size, Model model) {
+        model.addAttribute("keywords", keywords);
+        if (!keywords.isBlank()) {
+            model.addAttribute("searchResult", reportService.searchReports(userDetail, keywords, size));
+        }
+        model.addAttribute("pageSize", reportService.resolvePageSize(size));
+        return "reports/search";
+    }
+
 
 
 //        // ■■ 合格時の日報 一覧画面の表示
@@ -86,7 +155,7 @@ public class ReportController {
     // ■■ 日報 新規登録画面の表示
     @GetMapping(value = "/add")
     public String create(@ModelAttribute Report report, @AuthenticationPrincipal UserDetail userDetail, Model model) {
-        model.addAttribute("loginUser", userDetail.getEmployee());
+        model.addAttribute("loginUser", userDetail);
 
         return "reports/new";
     }
@@ -126,25 +195,29 @@ public class ReportController {
 
         if (Res.hasErrors()) {
             // バリデーションエラーがある場合、フォームを再表示
-            model.addAttribute("loginUser", userDetail.getEmployee());
+            model.addAttribute("loginUser", userDetail);
             return "reports/new";
         }
 
         // 以下の処理はバリデーションが成功した場合のみ実行される
-        Employee loginUser = userDetail.getEmployee();
-        report.setEmployee(loginUser);
-
-        // 日報の登録日時の重複チェックを実行
-        ErrorKinds duplicateCheckResult = reportService.checkDuplicateReportDate(loginUser, report.getReportDate());
-        if (duplicateCheckResult == ErrorKinds.DUPLICATE_DATE_ERROR) {
-            model.addAttribute("errorMessage", "既に登録されている日付でーーーす。");
-            return "reports/new";
-        }
-
-        // 重複がない場合、日報を保存
-        ErrorKinds result = reportService.save(report, loginUser);
-        if (result != ErrorKinds.SUCCESS) {
-            model.addAttribute("errorMessage", ErrorMessage.getErrorValue(result));
+        UserDetail loginUser = userDetail;
+
+        // 日付の重複は一意制約(employee_code, report_date)で検出するためtry~catchで対応
+        // (事前チェックを行わず、1回のINSERTで登録と重複チェックを兼ねる)
+        try {
+            ErrorKinds result = reportService.save(report, loginUser);
+            if (result != ErrorKinds.SUCCESS) {
+                model.addAttribute("errorMessage", ErrorMessage.getErrorValue(result));
+                return "reports/new";
+            }
+
+        } catch (DataIntegrityViolationException e) {
+            // 日付の重複以外の制約違反はエラー画面へ
+            if (!ReportService.isDuplicateReportDate(e)) {
+                throw e;
+            }
+            model.addAttribute("errorMessage", ErrorMessage.getErrorValue(ErrorKinds.DUPLICATE_DATE_ERROR));
+            model.addAttribute("loginUser", loginUser);
             return "reports/new";
         }
 
@@ -155,9 +228,21 @@ public class ReportController {
 
     // ■■日報詳細画面
     @GetMapping(value = "/{id}/")
-    public String detail(@PathVariable Integer id, Model model) {
+    public String detail(@PathVariable Integer id, Model model, ServletWebRequest webRequest) {
+        // 日報・従業員が前回の表示から変わっていなければ、日報を取得せずに304を返す
+        UpdateStamp stamp = reportService.getReportStamp(id);
+        if (stamp != null && ConditionalRequests.checkNotModified(webRequest, List.of(stamp))) {
+            return null;
+        }
 
-        model.addAttribute("report", reportService.findById(id));
+        return showDetail(id, stamp, model);
+    }
+
+    // 日報詳細画面の表示(本文は描画済みのHTMLを使用し、日報が変わっていなければ日報を読み込まない)
+    private String showDetail(Integer id, UpdateStamp stamp, Model model) {
+        model.addAttribute("id", id);
+        model.addAttribute("reportBody",
+                renderedFragmentCache.getReportDetail(id, stamp, () -> reportService.findById(id)));
         return "reports/detail";
     }
 
@@ -184,22 +269,23 @@ public class ReportController {
             BindingResult res, @AuthenticationPrincipal UserDetail userDetail, Model model) {
         if (res.hasErrors()) {
             // バリデーションエラーがある場合、フォームを再表示
-            model.addAttribute("loginUser", userDetail.getEmployee());
+            model.addAttribute("loginUser", userDetail);
             model.addAttribute("report", updatedReport); // 現在の入力値を保持
             return "reports/update";
         }
 
-        // 日報の更新時の重複チェック
-        ErrorKinds duplicateCheckResult = reportService.checkDuplicateReportDateForUpdate(id, userDetail.getEmployee(),
-                updatedReport.getReportDate());
-        if (duplicateCheckResult == ErrorKinds.DUPLICATE_DATE_ERROR) {
-            model.addAttribute("errorMessage", "既に登録されている日付でーーす。");
-            model.addAttribute("report", updatedReport);
-            return "reports/update";
-        }
-
         // 日報の更新処理をサービスに
-        ErrorKinds updateResult = reportService.updateReport(id, updatedReport);
+        // 日付の重複は一意制約(employee_code, report_date)で検出するためtry~catchで対応
+        ErrorKinds updateResult;
+        try {
+            updateResult = reportService.updateReport(id, updatedReport);
+        } catch (DataIntegrityViolationException e) {
+            // 日付の重複以外の制約違反はエラー画面へ
+            if (!ReportService.isDuplicateReportDate(e)) {
+                throw e;
+            }
+            updateResult = ErrorKinds.DUPLICATE_DATE_ERROR;
+        }
         if (updateResult != ErrorKinds.SUCCESS) {
             // 更新に失敗した場合の処理
             model.addAttribute("errorMessage", ErrorMessage.getErrorValue(updateResult));
@@ -221,19 +307,39 @@ public class ReportController {
 
         if (ErrorMessage.contains(result)) {
             model.addAttribute(ErrorMessage.getErrorName(result), ErrorMessage.getErrorValue(result));
-            model.addAttribute("report", reportService.findById(id));
-            return detail(id, model);
+            return showDetail(id, reportService.getReportStamp(id), model);
         }
 
         return "redirect:/reports";
     }
 
-    // ■■日報一覧のCSVエクスポート
+    // ■■日報一覧のCSVエクスポート(日報一覧と同じ条件で絞り込む)
     @GetMapping("/export/csv")
-    public void exportReportsToCsv(HttpServletResponse response) throws IOException {
+    public void exportReportsToCsv(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String employeeCode, @RequestParam(required = false) String title,
+            HttpServletResponse response) throws IOException {
         // 正しいメソッド名で呼び出す
-        reportService.exportReportsToCsv(response);
+        reportService.exportReportsToCsv(response, new ReportFilter(from, to, employeeCode, title));
+
+    }
 
+    // ■■日報CSVインポート画面
+    @GetMapping("/import")
+    public String importForm() {
+        return "reports/import";
+    }
+
+    // ■■日報CSVインポート処理(登録できなかった行は画面に表示する)
+    @PostMapping("/import")
+    public String importReports(@RequestParam("file") MultipartFile file, Model model) throws IOException {
+        if (file.isEmpty()) {
+            model.addAttribute("errorMessage", "ファイルを選択してください");
+            return "reports/import";
+        }
+        model.addAttribute("importResult", reportImportService.importCsv(file.getInputStream()));
+        return "reports/import";
     }
 
 //    @GetMapping("/reports/export/csv")
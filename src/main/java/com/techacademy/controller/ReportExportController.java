@@ -0,0 +1,128 @@
+package com.techacademy.controller;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.techacademy.constants.ErrorKinds;
+import com.techacademy.constants.ErrorMessage;
+import com.techacademy.repository.ReportFilter;
+import com.techacademy.service.ReportChangePage;
+import com.techacademy.service.ReportExportJob;
+import com.techacademy.service.ReportExportJobService;
+import com.techacademy.service.ReportService;
+import com.techacademy.service.UserDetail;
+
+@Controller
+@RequestMapping("reports/export")
+public class ReportExportController {
+
+    // 実行中の進捗画面を自動で再表示する間隔(秒)
+    private static final String REFRESH_SECONDS = "2";
+
+    private final ReportExportJobService reportExportJobService;
+    private final ReportService reportService;
+
+    @Autowired
+    public ReportExportController(ReportExportJobService reportExportJobService, ReportService reportService) {
+        this.reportExportJobService = reportExportJobService;
+        this.reportService = reportService;
+    }
+
+
+
+    // ■■ 日報CSVのバックグラウンドエクスポートの開始(進捗画面へリダイレクト)
+    // 日報一覧で指定していた絞り込み条件の日報を書き出す
+    @PostMapping("/jobs")
+    public String create(@RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String employeeCode, @RequestParam(required = false) String title,
+            @AuthenticationPrincipal UserDetail userDetail, Model model) {
+        ReportExportJob job = reportExportJobService.submit(userDetail.getCode(), gzip,
+                new ReportFilter(from, to, employeeCode, title));
+        if (job == null) {
+            model.addAttribute(ErrorMessage.getErrorName(ErrorKinds.EXPORT_BUSY_ERROR),
+                    ErrorMessage.getErrorValue(ErrorKinds.EXPORT_BUSY_ERROR));
+            return "reports/export";
+        }
+        return "redirect:/reports/export/jobs/" + job.getId();
+    }
+
+
+
+    // ■■ エクスポートの進捗画面(実行中は一定間隔で再表示する)
+    @GetMapping("/jobs/{id}")
+    public String status(@PathVariable String id, @AuthenticationPrincipal UserDetail userDetail, Model model,
+            HttpServletResponse response) {
+        ReportExportJob job = reportExportJobService.findJob(id, userDetail.getCode());
+        if (job == null) {
+            return "redirect:/reports";
+        }
+        if (!job.isFinished()) {
+            response.setHeader("Refresh", REFRESH_SECONDS);
+        }
+        model.addAttribute("job", job);
+        return "reports/export";
+    }
+
+
+
+    // ■■ エクスポートしたファイルのダウンロード(Rangeによる再開に対応)
+    @GetMapping("/jobs/{id}/download")
+    public void download(@PathVariable String id, @AuthenticationPrincipal UserDetail userDetail,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ReportExportJob job = reportExportJobService.findJob(id, userDetail.getCode());
+        if (job == null || !job.isCompleted()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // ジョブごとに内容は変わらないため、ジョブIDをETagとする
+        FileDownloads.send(request, response, job.getFile(), job.getFileName(), job.getContentType(),
+                "\"" + job.getId() + "\"");
+    }
+
+
+
+    // ■■ 差分エクスポート(JSON) since(更新日時)・cursorId(ID)より後に更新・論理削除された日報を1ページ分返す
+    // 続きは応答の nextSince・nextCursorId を指定して取得する(未指定の場合は全件の先頭から)
+    @GetMapping("/changes")
+    @ResponseBody
+    public ReportChangePage changes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) Integer cursorId, @RequestParam(required = false) Integer size) {
+        return reportService.getChanges(since, cursorId, size);
+    }
+
+
+
+    // ■■ 差分エクスポート(CSV) 指定した起点より後の変更をすべて書き出す
+    // 次回は最終行の Updated At・ID を since・cursorId に指定する(0件の場合は同じ起点のまま)
+    @GetMapping("/changes/csv")
+    public void changesCsv(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) Integer cursorId, HttpServletResponse response) throws IOException {
+        LocalDateTime until = reportService.getChangesUntil();
+        response.setContentType("text/csv");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"report-changes.csv\"");
+        // 対象とした更新日時の上限(これより後の更新は次回の取得に含まれる)
+        response.setHeader("X-Changes-Until", until.toString());
+        reportService.writeChangesCsv(response.getWriter(), since, cursorId, until);
+    }
+}
@@ -0,0 +1,57 @@
+package com.techacademy.controller;
+
+import java.time.YearMonth;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import com.techacademy.service.ReportMonthlySummary;
+import com.techacademy.service.ReportStatsService;
+
+@Controller
+@RequestMapping("reports/stats")
+public class ReportStatsController {
+
+    private final ReportStatsService reportStatsService;
+
+    @Autowired
+    public ReportStatsController(ReportStatsService reportStatsService) {
+        this.reportStatsService = reportStatsService;
+    }
+
+
+
+    // ■■ 日報の集計画面(従業員別の月間件数) 集計表のみを読むため日報の件数に関わらず一定の時間で表示する
+    @GetMapping
+    public String stats(@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+            Model model) {
+        YearMonth targetMonth = month != null ? month : YearMonth.now();
+        ReportMonthlySummary summary = reportStatsService.getMonthlySummary(targetMonth);
+
+        model.addAttribute("summary", summary);
+        model.addAttribute("previousMonth", targetMonth.minusMonths(1));
+        model.addAttribute("nextMonth", targetMonth.plusMonths(1));
+        return "reports/stats";
+    }
+
+
+
+    // ■■ 集計のやり直し(日報テーブルから集計表を作り直す)
+    @PostMapping("/rebuild")
+    public String rebuild(@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+            RedirectAttributes redirectAttributes) {
+        reportStatsService.rebuild();
+        if (month != null) {
+            redirectAttributes.addAttribute("month", month.toString());
+        }
+        return "redirect:/reports/stats";
+    }
+
+}
@@ -9,15 +9,24 @@ import java.util.List;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import com.techacademy.entity.Employee.Role;
+import com.techacademy.repository.ReportChange;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.ColumnResult;
+import jakarta.persistence.ConstructorResult;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedNativeQueries;
+import jakarta.persistence.NamedNativeQuery;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.SqlResultSetMapping;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -26,17 +35,53 @@ import lombok.Data;
 
 @Data
 @Entity
-@Table(name = "reports")
+@Table(name = "reports", uniqueConstraints = {
+        // 同一従業員・同一日付の日報は1件のみ
+        @UniqueConstraint(name = Report.UNIQUE_EMPLOYEE_CODE_REPORT_DATE, columnNames = { "employee_code",
+                "report_date" }) }, indexes = {
+        // 差分エクスポート(更新日時・IDの順に読み出す)と、一覧の更新確認(最終更新日時)に使用
+        @Index(name = "idx_reports_updated_at_id", columnList = "updated_at, id"),
+        // 日報一覧・CSVエクスポートの日付による絞り込み(社員番号による絞り込みは上記の一意制約のインデックスを使用)
+        @Index(name = "idx_reports_delete_flg_report_date", columnList = "delete_flg, report_date") })
+// 差分エクスポート(ReportRepository#findChangesAfter / streamChangesAfter)
+// 論理削除された従業員の日報も含めるため、@SQLRestrictionが適用されないSQLで従業員の氏名を取得する
+@NamedNativeQueries({
+        @NamedNativeQuery(name = "Report.findChangesAfter", query = Report.CHANGES_AFTER_SQL,
+                resultSetMapping = "ReportChange"),
+        @NamedNativeQuery(name = "Report.streamChangesAfter", query = Report.CHANGES_AFTER_SQL,
+                resultSetMapping = "ReportChange") })
+@SqlResultSetMapping(name = "ReportChange", classes = @ConstructorResult(targetClass = ReportChange.class, columns = {
+        @ColumnResult(name = "id", type = Integer.class),
+        @ColumnResult(name = "employee_code", type = String.class),
+        @ColumnResult(name = "employee_name", type = String.class),
+        @ColumnResult(name = "report_date", type = LocalDate.class),
+        @ColumnResult(name = "title", type = String.class),
+        @ColumnResult(name = "content", type = String.class),
+        @ColumnResult(name = "delete_flg", type = Boolean.class),
+        @ColumnResult(name = "updated_at", type = LocalDateTime.class) }))
 public class Report {
 
+    // (updated_at, id) の昇順 指定したカーソル(更新日時, ID)より後ろ、かつ until 以前に更新された日報(論理削除された日報も含める)
+    // updated_at >= :updatedAt を単独の条件として持たせ、インデックス(updated_at, id)の範囲検索とする
+    // 同一従業員・同一日付の一意制約の名前(重複エラーの判定に使用)
+    public static final String UNIQUE_EMPLOYEE_CODE_REPORT_DATE = "uk_reports_employee_code_report_date";
+
+    static final String CHANGES_AFTER_SQL = "SELECT r.id, r.employee_code, e.name AS employee_name, r.report_date,"
+            + " r.title, r.content, r.delete_flg, r.updated_at FROM reports r JOIN employees e ON e.code = r.employee_code"
+            + " WHERE r.updated_at >= :updatedAt AND (r.updated_at > :updatedAt OR r.id > :id)"
+            + " AND r.updated_at <= :until ORDER BY r.updated_at, r.id";
+
     @ManyToOne
     @JoinColumn(name = "employee_code", referencedColumnName = "code", nullable = false)
     private Employee employee;
 
 
     //ID
+    // IDENTITYではINSERTごとに採番結果を取得する必要があり、JDBCのバッチ登録が無効になるため、
+    // シーケンス(MySQLではテーブルで代替)から50件ずつまとめて採番する
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reports_seq")
+    @SequenceGenerator(name = "reports_seq", sequenceName = "reports_seq", allocationSize = 50)
     @Column
     private Integer id;
 
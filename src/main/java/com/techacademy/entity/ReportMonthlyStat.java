@@ -0,0 +1,30 @@
+package com.techacademy.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+// 従業員別・月別の日報件数(集計表)
+// 日報の登録・更新・削除と同じトランザクションで増減する
+@Data
+@Entity
+@Table(name = "report_monthly_stats")
+public class ReportMonthlyStat {
+
+    // 社員番号・対象年月
+    @EmbeddedId
+    private ReportMonthlyStatId id;
+
+    // 論理削除されていない日報の件数
+    @Column(nullable = false)
+    private int reportCount;
+
+    // 更新日時
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+}
@@ -0,0 +1,28 @@
+package com.techacademy.entity;
+
+import java.io.Serializable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 従業員別・月別の日報件数のキー
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class ReportMonthlyStatId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // 社員番号
+    @Column(length = 10)
+    private String employeeCode;
+
+    // 対象年月(yyyyMM の数値 例: 202401)
+    @Column
+    private int targetMonth;
+
+}
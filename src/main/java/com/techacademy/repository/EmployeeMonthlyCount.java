@@ -0,0 +1,33 @@
+package com.techacademy.repository;
+
+// 従業員別の月間日報件数(集計表から取得)
+public class EmployeeMonthlyCount {
+
+    // 社員番号
+    private final String code;
+
+    // 氏名
+    private final String name;
+
+    // 日報件数
+    private final int reportCount;
+
+    public EmployeeMonthlyCount(String code, String name, Integer reportCount) {
+        this.code = code;
+        this.name = name;
+        // 集計表に行がない場合は0件
+        this.reportCount = reportCount == null ? 0 : reportCount;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getReportCount() {
+        return reportCount;
+    }
+}
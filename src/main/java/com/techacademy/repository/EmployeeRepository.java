@@ -1,8 +1,36 @@
 package com.techacademy.repository;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.techacademy.entity.Employee;
 
 public interface EmployeeRepository extends JpaRepository<Employee, String> {
-}
\ No newline at end of file
+
+    // 従業員キャッシュの名前
+    String CACHE_NAME = "employees";
+
+    // 1件を検索(論理削除されていない従業員) 変更できない項目のみを取得し、キャッシュする
+    // キャッシュの破棄は EmployeeService の更新処理がコミット後に行う
+    @Cacheable(cacheNames = CACHE_NAME, key = "#code", unless = "#result == null")
+    @Query("SELECT new com.techacademy.repository.EmployeeSnapshot(e.code, e.name, e.role, e.password, e.createdAt,"
+            + " e.updatedAt) FROM Employee e WHERE e.code = :code")
+    EmployeeSnapshot findSnapshotByCode(String code);
+
+    // 従業員一覧の更新確認(条件付きGET) 論理削除された従業員は件数の減少として検出する
+    @Query("SELECT new com.techacademy.repository.UpdateStamp(MAX(e.updatedAt), COUNT(e)) FROM Employee e")
+    UpdateStamp findUpdateStamp();
+
+    // 指定した社員番号のうち、登録されている(論理削除されていない)もの
+    @Query("SELECT e.code FROM Employee e WHERE e.code IN :codes")
+    List<String> findCodesByCodeIn(Collection<String> codes);
+
+    // 指定した社員番号のうち、登録されているもの(論理削除された従業員を含む)
+    // 社員番号は論理削除後も主キーとして残るため、新規登録時の重複チェックに使用する(@SQLRestrictionが適用されないSQLで取得)
+    @Query(value = "SELECT code FROM employees WHERE code IN :codes", nativeQuery = true)
+    List<String> findCodesIncludingDeletedByCodeIn(Collection<String> codes);
+}
@@ -0,0 +1,73 @@
+package com.techacademy.repository;
+
+import java.time.LocalDateTime;
+
+import com.techacademy.entity.Employee;
+
+// 従業員キャッシュに保存する従業員の項目(変更できない値のみを持ち、スレッド・リクエスト間で共有してよい)
+// 日報(reportList)は持たない 利用する側には toEmployee で毎回新しいエンティティを作成して渡す
+public class EmployeeSnapshot {
+
+    // 社員番号
+    private final String code;
+
+    // 名前
+    private final String name;
+
+    // 権限
+    private final Employee.Role role;
+
+    // パスワード(ハッシュ)
+    private final String password;
+
+    // 登録日時・更新日時
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+
+    public EmployeeSnapshot(String code, String name, Employee.Role role, String password, LocalDateTime createdAt,
+            LocalDateTime updatedAt) {
+        this.code = code;
+        this.name = name;
+        this.role = role;
+        this.password = password;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    // 永続化コンテキストに含まれない従業員エンティティ(論理削除されていない従業員のみキャッシュするため削除フラグはfalse)
+    public Employee toEmployee() {
+        Employee employee = new Employee();
+        employee.setCode(code);
+        employee.setName(name);
+        employee.setRole(role);
+        employee.setPassword(password);
+        employee.setDeleteFlg(false);
+        employee.setCreatedAt(createdAt);
+        employee.setUpdatedAt(updatedAt);
+        return employee;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Employee.Role getRole() {
+        return role;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,76 @@
+package com.techacademy.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// 差分エクスポートの1件(更新・論理削除された日報) 論理削除された日報は deleteFlg が true となる
+public class ReportChange {
+
+    // ID
+    private final Integer id;
+
+    // 社員番号
+    private final String employeeCode;
+
+    // 氏名
+    private final String employeeName;
+
+    // 日付
+    private final LocalDate reportDate;
+
+    // タイトル
+    private final String title;
+
+    // 内容
+    private final String content;
+
+    // 削除フラグ
+    private final boolean deleteFlg;
+
+    // 更新日時(カーソルとして使用する)
+    private final LocalDateTime updatedAt;
+
+    public ReportChange(Integer id, String employeeCode, String employeeName, LocalDate reportDate, String title,
+            String content, boolean deleteFlg, LocalDateTime updatedAt) {
+        this.id = id;
+        this.employeeCode = employeeCode;
+        this.employeeName = employeeName;
+        this.reportDate = reportDate;
+        this.title = title;
+        this.content = content;
+        this.deleteFlg = deleteFlg;
+        this.updatedAt = updatedAt;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getEmployeeCode() {
+        return employeeCode;
+    }
+
+    public String getEmployeeName() {
+        return employeeName;
+    }
+
+    public LocalDate getReportDate() {
+        return reportDate;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public boolean isDeleteFlg() {
+        return deleteFlg;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
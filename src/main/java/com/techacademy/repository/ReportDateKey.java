@@ -0,0 +1,43 @@
+package com.techacademy.repository;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+// 日報の一意キー(社員番号・日付) 一意制約(employee_code, report_date)と同じ組み合わせ
+public class ReportDateKey {
+
+    // 社員番号
+    private final String employeeCode;
+
+    // 日付
+    private final LocalDate reportDate;
+
+    public ReportDateKey(String employeeCode, LocalDate reportDate) {
+        this.employeeCode = employeeCode;
+        this.reportDate = reportDate;
+    }
+
+    public String getEmployeeCode() {
+        return employeeCode;
+    }
+
+    public LocalDate getReportDate() {
+        return reportDate;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ReportDateKey other)) {
+            return false;
+        }
+        return employeeCode.equals(other.employeeCode) && reportDate.equals(other.reportDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(employeeCode, reportDate);
+    }
+}
@@ -0,0 +1,58 @@
+package com.techacademy.repository;
+
+import java.time.LocalDate;
+
+// 日報一覧・CSVエクスポートの絞り込み条件(未指定の項目はnull)
+// 日付の範囲は (delete_flg, report_date)、社員番号の指定は (employee_code, report_date) のインデックスで絞り込む
+public class ReportFilter {
+
+    // 条件なし
+    public static final ReportFilter EMPTY = new ReportFilter(null, null, null, null);
+
+    // 日付(開始・終了 いずれも含む)
+    private final LocalDate dateFrom;
+    private final LocalDate dateTo;
+
+    // 社員番号
+    private final String employeeCode;
+
+    // タイトルの前方一致
+    private final String titlePrefix;
+
+    public ReportFilter(LocalDate dateFrom, LocalDate dateTo, String employeeCode, String titlePrefix) {
+        this.dateFrom = dateFrom;
+        this.dateTo = dateTo;
+        this.employeeCode = normalize(employeeCode);
+        this.titlePrefix = normalize(titlePrefix);
+    }
+
+    // 社員番号を置き換えた条件(GENERALは自分の日報のみとするため)
+    public ReportFilter withEmployeeCode(String employeeCode) {
+        return new ReportFilter(dateFrom, dateTo, employeeCode, titlePrefix);
+    }
+
+    public boolean isEmpty() {
+        return dateFrom == null && dateTo == null && employeeCode == null && titlePrefix == null;
+    }
+
+    public LocalDate getDateFrom() {
+        return dateFrom;
+    }
+
+    public LocalDate getDateTo() {
+        return dateTo;
+    }
+
+    public String getEmployeeCode() {
+        return employeeCode;
+    }
+
+    public String getTitlePrefix() {
+        return titlePrefix;
+    }
+
+    // 空白のみの入力は未指定とする
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.strip();
+    }
+}
@@ -0,0 +1,50 @@
+package com.techacademy.repository;
+
+import java.time.LocalDate;
+
+// 全文検索インデックスに登録する項目(従業員は結合せず、外部キーの社員番号のみ取得する)
+public class ReportIndexItem {
+
+    // ID
+    private final Integer id;
+
+    // 社員番号(権限による絞り込みに使用)
+    private final String employeeCode;
+
+    // 日付
+    private final LocalDate reportDate;
+
+    // タイトル
+    private final String title;
+
+    // 内容
+    private final String content;
+
+    public ReportIndexItem(Integer id, String employeeCode, LocalDate reportDate, String title, String content) {
+        this.id = id;
+        this.employeeCode = employeeCode;
+        this.reportDate = reportDate;
+        this.title = title;
+        this.content = content;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getEmployeeCode() {
+        return employeeCode;
+    }
+
+    public LocalDate getReportDate() {
+        return reportDate;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getContent() {
+        return content;
+    }
+}
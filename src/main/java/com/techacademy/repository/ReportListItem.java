@@ -0,0 +1,42 @@
+package com.techacademy.repository;
+
+import java.time.LocalDate;
+
+// 日報一覧の表示項目(内容は一覧に表示しないため取得しない)
+public class ReportListItem {
+
+    // ID
+    private final Integer id;
+
+    // 日付
+    private final LocalDate reportDate;
+
+    // タイトル
+    private final String title;
+
+    // 氏名
+    private final String employeeName;
+
+    public ReportListItem(Integer id, LocalDate reportDate, String title, String employeeName) {
+        this.id = id;
+        this.reportDate = reportDate;
+        this.title = title;
+        this.employeeName = employeeName;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public LocalDate getReportDate() {
+        return reportDate;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getEmployeeName() {
+        return employeeName;
+    }
+}
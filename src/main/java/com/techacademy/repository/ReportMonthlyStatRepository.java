@@ -0,0 +1,45 @@
+package com.techacademy.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.techacademy.entity.ReportMonthlyStat;
+import com.techacademy.entity.ReportMonthlyStatId;
+
+public interface ReportMonthlyStatRepository extends JpaRepository<ReportMonthlyStat, ReportMonthlyStatId> {
+
+    // 件数を増減する(行がなければ作成する) 同時に更新されても1回のSQLで加算するため件数はずれない
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO report_monthly_stats (employee_code, target_month, report_count, updated_at)"
+            + " VALUES (:employeeCode, :targetMonth, GREATEST(:delta, 0), CURRENT_TIMESTAMP)"
+            + " ON DUPLICATE KEY UPDATE report_count = GREATEST(report_count + :delta, 0),"
+            + " updated_at = CURRENT_TIMESTAMP", nativeQuery = true)
+    int addReportCount(String employeeCode, int targetMonth, int delta);
+
+    // 従業員の集計を削除する(従業員の日報を一括で論理削除した場合)
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM ReportMonthlyStat s WHERE s.id.employeeCode = :employeeCode")
+    int deleteByEmployeeCode(String employeeCode);
+
+    // ■■ 再構築(日報テーブルからの集計のやり直し)
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ReportMonthlyStat s")
+    int deleteAllStats();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO report_monthly_stats (employee_code, target_month, report_count, updated_at)"
+            + " SELECT employee_code, YEAR(report_date) * 100 + MONTH(report_date), COUNT(*), CURRENT_TIMESTAMP"
+            + " FROM reports WHERE delete_flg = 0"
+            + " GROUP BY employee_code, YEAR(report_date) * 100 + MONTH(report_date)", nativeQuery = true)
+    int insertStatsFromReports();
+
+    // ■■ 集計画面用 論理削除されていない全従業員の指定月の件数(日報がない従業員は0件)
+    @Query("SELECT new com.techacademy.repository.EmployeeMonthlyCount(e.code, e.name, s.reportCount)"
+            + " FROM Employee e LEFT JOIN ReportMonthlyStat s"
+            + " ON s.id.employeeCode = e.code AND s.id.targetMonth = :targetMonth ORDER BY e.code")
+    List<EmployeeMonthlyCount> findEmployeeMonthlyCounts(int targetMonth);
+}
@@ -1,16 +1,26 @@
 package com.techacademy.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.techacademy.entity.Employee;
 import com.techacademy.entity.Report;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
-public interface ReportRepository extends JpaRepository<Report, Integer> {
+import jakarta.persistence.QueryHint;
+
+public interface ReportRepository extends JpaRepository<Report, Integer>, ReportRepositoryCustom {
 
 //    // ■■ JavaScriptバージョン
 //    // 論理削除されていない全ての日報を取得
@@ -39,4 +49,153 @@ public interface ReportRepository extends JpaRepository<Report, Integer> {
     @Query("SELECT r FROM Report r WHERE r.employee = :employee AND r.reportDate = :reportDate")
     Optional<Report> findByEmployeeAndReportDate(Employee employee, LocalDate reportDate);
 
+
+    // ■■ 従業員削除時の日報一括論理削除
+
+    // 論理削除されていない日報の件数(従業員指定)
+    @Query("SELECT COUNT(r) FROM Report r WHERE r.employee.code = :employeeCode AND r.deleteFlg = false")
+    long countByEmployeeCodeAndDeleteFlgFalse(String employeeCode);
+
+    // 従業員の日報を1回のUPDATEで論理削除
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Report r SET r.deleteFlg = true, r.updatedAt = :now"
+            + " WHERE r.employee.code = :employeeCode AND r.deleteFlg = false")
+    int softDeleteByEmployeeCode(String employeeCode, LocalDateTime now);
+
+    // 論理削除されていない日報のID(従業員指定) ※件数は Pageable で指定する
+    @Query("SELECT r.id FROM Report r WHERE r.employee.code = :employeeCode AND r.deleteFlg = false ORDER BY r.id")
+    List<Integer> findIdsByEmployeeCodeAndDeleteFlgFalse(String employeeCode, Pageable pageable);
+
+    // 日報を1件論理削除(削除済みの場合は更新しない) 戻り値は更新した件数(0または1)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Report r SET r.deleteFlg = true, r.updatedAt = :now WHERE r.id = :id AND r.deleteFlg = false")
+    int softDeleteById(Integer id, LocalDateTime now);
+
+    // 指定したIDの日報を1回のUPDATEで論理削除
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Report r SET r.deleteFlg = true, r.updatedAt = :now WHERE r.id IN :ids")
+    int softDeleteByIdIn(List<Integer> ids, LocalDateTime now);
+
+
+    // ■■ CSVエクスポート用 論理削除されていない日報を従業員と一緒に1件ずつ読み出す
+    // トランザクション内で使用し、使用後は必ずcloseすること
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false") })
+    @Query("SELECT r FROM Report r JOIN FETCH r.employee WHERE r.deleteFlg = false ORDER BY r.id")
+    Stream<Report> streamByDeleteFlgFalse();
+
+    // 論理削除されていない日報の件数(エクスポートの進捗表示用)
+    long countByDeleteFlgFalse();
+
+
+    // ■■ キーセットページング (report_date DESC, id DESC)
+    // 取得件数は Pageable で指定する(ページ番号は常に0で使用する)
+    // 一覧に必要な項目だけを従業員と結合した1回のSELECTで取得する
+
+    // 先頭ページ
+    @Query("SELECT new com.techacademy.repository.ReportListItem(r.id, r.reportDate, r.title, e.name)"
+            + " FROM Report r JOIN r.employee e WHERE r.deleteFlg = false ORDER BY r.reportDate DESC, r.id DESC")
+    List<ReportListItem> findFirstPage(Pageable pageable);
+
+    // 指定したカーソルより後ろ(古い方)のページ
+    @Query("SELECT new com.techacademy.repository.ReportListItem(r.id, r.reportDate, r.title, e.name)"
+            + " FROM Report r JOIN r.employee e WHERE r.deleteFlg = false"
+            + " AND (r.reportDate < :reportDate OR (r.reportDate = :reportDate AND r.id < :id))"
+            + " ORDER BY r.reportDate DESC, r.id DESC")
+    List<ReportListItem> findNextPage(LocalDate reportDate, Integer id, Pageable pageable);
+
+    // 指定したカーソルより前(新しい方)のページ ※昇順で取得するため呼び出し側で反転する
+    @Query("SELECT new com.techacademy.repository.ReportListItem(r.id, r.reportDate, r.title, e.name)"
+            + " FROM Report r JOIN r.employee e WHERE r.deleteFlg = false"
+            + " AND (r.reportDate > :reportDate OR (r.reportDate = :reportDate AND r.id > :id))"
+            + " ORDER BY r.reportDate ASC, r.id ASC")
+    List<ReportListItem> findPreviousPage(LocalDate reportDate, Integer id, Pageable pageable);
+
+    // 先頭ページ(従業員指定)
+    @Query("SELECT new com.techacademy.repository.ReportListItem(r.id, r.reportDate, r.title, e.name)"
+            + " FROM Report r JOIN r.employee e WHERE r.employee.code = :employeeCode AND r.deleteFlg = false"
+            + " ORDER BY r.reportDate DESC, r.id DESC")
+    List<ReportListItem> findFirstPageByEmployee(String employeeCode, Pageable pageable);
+
+    // 指定したカーソルより後ろ(古い方)のページ(従業員指定)
+    @Query("SELECT new com.techacademy.repository.ReportListItem(r.id, r.reportDate, r.title, e.name)"
+            + " FROM Report r JOIN r.employee e WHERE r.employee.code = :employeeCode AND r.deleteFlg = false"
+            + " AND (r.reportDate < :reportDate OR (r.reportDate = :reportDate AND r.id < :id))"
+            + " ORDER BY r.reportDate DESC, r.id DESC")
+    List<ReportListItem> findNextPageByEmployee(String employeeCode, LocalDate reportDate, Integer id, Pageable pageable);
+
+    // 指定したカーソルより前(新しい方)のページ(従業員指定) ※昇順で取得するため呼び出し側で反転する
+    @Query("SELECT new com.techacademy.repository.ReportListItem(r.id, r.reportDate, r.title, e.name)"
+            + " FROM Report r JOIN r.employee e WHERE r.employee.code = :employeeCode AND r.deleteFlg = false"
+            + " AND (r.reportDate > :reportDate OR (r.reportDate = :reportDate AND r.id > :id))"
+            + " ORDER BY r.reportDate ASC, r.id ASC")
+    List<ReportListItem> findPreviousPageByEmployee(String employeeCode, LocalDate reportDate, Integer id, Pageable pageable);
+
+    // 日報一覧の更新確認(条件付きGET) 論理削除でも更新日時が変わるため、最終更新日時は削除済みの日報も含めて求める
+    @Query("SELECT new com.techacademy.repository.UpdateStamp(MAX(r.updatedAt),"
+            + " SUM(CASE WHEN r.deleteFlg = false THEN 1 ELSE 0 END)) FROM Report r")
+    UpdateStamp findUpdateStamp();
+
+    @Query("SELECT new com.techacademy.repository.UpdateStamp(MAX(r.updatedAt),"
+            + " SUM(CASE WHEN r.deleteFlg = false THEN 1 ELSE 0 END)) FROM Report r WHERE r.employee.code = :employeeCode")
+    UpdateStamp findUpdateStampByEmployeeCode(String employeeCode);
+
+    // 日報詳細の更新確認(氏名も表示するため従業員の更新日時も含める)
+    @Query("SELECT new com.techacademy.repository.UpdateStamp(r.updatedAt, e.updatedAt)"
+            + " FROM Report r JOIN r.employee e WHERE r.id = :id")
+    UpdateStamp findUpdateStampById(Integer id);
+
+    // ■■ 差分エクスポート用 (updated_at, id) の昇順 論理削除された日報・論理削除された従業員の日報も含める
+    // 指定したカーソル(更新日時, ID)より後ろ、かつ until 以前に更新された日報
+    // SQLは Report の名前付きネイティブクエリ(従業員の@SQLRestrictionを適用しない) (件数は Pageable で指定する)
+    @Query(name = "Report.findChangesAfter", nativeQuery = true)
+    List<ReportChange> findChangesAfter(LocalDateTime updatedAt, Integer id, LocalDateTime until, Pageable pageable);
+
+    // 同上を1件ずつ読み出す(CSV用) トランザクション内で使用し、使用後は必ずcloseすること
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false") })
+    @Query(name = "Report.streamChangesAfter", nativeQuery = true)
+    Stream<ReportChange> streamChangesAfter(LocalDateTime updatedAt, Integer id, LocalDateTime until);
+
+    // ■■ 全文検索インデックス用
+
+    // 日報IDの最大値(インデックス再構築時の分割に使用)
+    @Query("SELECT MAX(r.id) FROM Report r")
+    Integer findMaxId();
+
+    // 指定したID範囲の論理削除されていない日報を1件ずつ読み出す
+    // トランザクション内で使用し、使用後は必ずcloseすること
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false") })
+    @Query("SELECT new com.techacademy.repository.ReportIndexItem(r.id, r.employee.code, r.reportDate, r.title, r.content)"
+            + " FROM Report r WHERE r.deleteFlg = false AND r.id BETWEEN :fromId AND :toId")
+    Stream<ReportIndexItem> streamIndexItemsByIdBetween(Integer fromId, Integer toId);
+
+    // 指定したIDの論理削除されていない日報
+    @Query("SELECT new com.techacademy.repository.ReportIndexItem(r.id, r.employee.code, r.reportDate, r.title, r.content)"
+            + " FROM Report r WHERE r.id IN :ids AND r.deleteFlg = false")
+    List<ReportIndexItem> findIndexItemsByIdIn(Collection<Integer> ids);
+
+    // 従業員の論理削除されていない日報
+    @Query("SELECT new com.techacademy.repository.ReportIndexItem(r.id, r.employee.code, r.reportDate, r.title, r.content)"
+            + " FROM Report r WHERE r.employee.code = :employeeCode AND r.deleteFlg = false")
+    List<ReportIndexItem> findIndexItemsByEmployeeCode(String employeeCode);
+
+    // 検索結果の表示項目(表示順は呼び出し側で検索結果の順に並べ替える)
+    @Query("SELECT new com.techacademy.repository.ReportListItem(r.id, r.reportDate, r.title, e.name)"
+            + " FROM Report r JOIN r.employee e WHERE r.id IN :ids AND r.deleteFlg = false")
+    List<ReportListItem> findListItemsByIdIn(Collection<Integer> ids);
+
+    // ■■ CSVインポート用 登録済みの社員番号・日付の組み合わせ(論理削除された日報を含む)
+    // 社員番号と日付それぞれのIN条件で取得するため、指定外の組み合わせも含まれる(呼び出し側で照合する)
+    @Query("SELECT new com.techacademy.repository.ReportDateKey(r.employee.code, r.reportDate) FROM Report r"
+            + " WHERE r.employee.code IN :employeeCodes AND r.reportDate IN :reportDates")
+    List<ReportDateKey> findDateKeys(Collection<String> employeeCodes, Collection<LocalDate> reportDates);
+
     }
@@ -0,0 +1,23 @@
+package com.techacademy.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.techacademy.entity.Report;
+
+// 絞り込み条件(ReportFilter)の組み合わせに応じて条件を組み立てる検索 実装は ReportRepositoryImpl
+public interface ReportRepositoryCustom {
+
+    // 日報一覧の1ページ分(キーセットページング report_date DESC, id DESC) 取得件数は limit で指定する
+    // cursorDate/cursorId が未指定の場合は先頭ページ、previous が true の場合はカーソルより前(新しい方)のページを昇順で返す
+    List<ReportListItem> findPageByFilter(ReportFilter filter, LocalDate cursorDate, Integer cursorId,
+            boolean previous, int limit);
+
+    // CSVエクスポート用 条件に一致する日報を従業員と一緒に1件ずつ読み出す(report_date, id の昇順)
+    // トランザクション内で使用し、使用後は必ずcloseすること
+    Stream<Report> streamByFilter(ReportFilter filter);
+
+    // 条件に一致する日報の件数(エクスポートの進捗表示用)
+    long countByFilter(ReportFilter filter);
+}
@@ -0,0 +1,119 @@
+package com.techacademy.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import com.techacademy.entity.Employee;
+import com.techacademy.entity.Report;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+// ReportRepositoryCustom の実装(指定された条件のみをWHERE句に含める)
+// 条件はいずれもインデックスの先頭列に対する等価・範囲条件とし、関数で包まない
+//   delete_flg = ? AND report_date BETWEEN ...   → (delete_flg, report_date)
+//   employee_code = ? AND report_date BETWEEN ... → (employee_code, report_date) ※一意制約のインデックス
+// InnoDBのインデックスは主キー(id)を末尾に含むため、(report_date, id) の並び順もインデックスの順序で読み出せる
+public class ReportRepositoryImpl implements ReportRepositoryCustom {
+
+    // タイトルの前方一致(LIKE)のエスケープ文字
+    private static final char LIKE_ESCAPE = '\\';
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ReportListItem> findPageByFilter(ReportFilter filter, LocalDate cursorDate, Integer cursorId,
+            boolean previous, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ReportListItem> query = cb.createQuery(ReportListItem.class);
+        Root<Report> report = query.from(Report.class);
+        Join<Report, Employee> employee = report.join("employee");
+        Path<LocalDate> reportDate = report.get("reportDate");
+        Path<Integer> id = report.get("id");
+
+        List<Predicate> predicates = filterPredicates(cb, report, filter);
+        boolean first = cursorDate == null || cursorId == null;
+        if (!first && previous) {
+            predicates.add(cb.or(cb.greaterThan(reportDate, cursorDate),
+                    cb.and(cb.equal(reportDate, cursorDate), cb.greaterThan(id, cursorId))));
+        } else if (!first) {
+            predicates.add(cb.or(cb.lessThan(reportDate, cursorDate),
+                    cb.and(cb.equal(reportDate, cursorDate), cb.lessThan(id, cursorId))));
+        }
+
+        query.select(cb.construct(ReportListItem.class, id, reportDate, report.get("title"), employee.get("name")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(!first && previous ? List.of(cb.asc(reportDate), cb.asc(id))
+                        : List.of(cb.desc(reportDate), cb.desc(id)));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Stream<Report> streamByFilter(ReportFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Report> query = cb.createQuery(Report.class);
+        Root<Report> report = query.from(Report.class);
+        report.fetch("employee");
+
+        query.select(report).where(filterPredicates(cb, report, filter).toArray(new Predicate[0]))
+                .orderBy(cb.asc(report.get("reportDate")), cb.asc(report.get("id")));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 1000)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_CACHEABLE, false)
+                .getResultStream();
+    }
+
+    @Override
+    public long countByFilter(ReportFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Report> report = query.from(Report.class);
+
+        query.select(cb.count(report)).where(filterPredicates(cb, report, filter).toArray(new Predicate[0]));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // 論理削除されていない日報のうち、指定された条件に一致するもの
+    // 社員番号は外部キーの列(employee_code)で比較する(従業員テーブルは結合しない)
+    private static List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Report> report, ReportFilter filter) {
+        Path<LocalDate> reportDate = report.get("reportDate");
+        List<Predicate> predicates = new ArrayList<Predicate>();
+        predicates.add(cb.equal(report.get("deleteFlg"), false));
+        if (filter.getEmployeeCode() != null) {
+            predicates.add(cb.equal(report.get("employee").get("code"), filter.getEmployeeCode()));
+        }
+        if (filter.getDateFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(reportDate, filter.getDateFrom()));
+        }
+        if (filter.getDateTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(reportDate, filter.getDateTo()));
+        }
+        if (filter.getTitlePrefix() != null) {
+            predicates.add(cb.like(report.get("title"), escapeLike(filter.getTitlePrefix()) + "%", LIKE_ESCAPE));
+        }
+        return predicates;
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
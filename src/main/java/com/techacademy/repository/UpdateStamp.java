@@ -0,0 +1,41 @@
+package com.techacademy.repository;
+
+import java.time.LocalDateTime;
+
+// 画面の更新確認(条件付きGET)用 最終更新日時と件数
+// 内容を読み込まずに、前回表示した時から変更されたかを判定するために使用する
+public class UpdateStamp {
+
+    // 最終更新日時(対象がない場合はnull)
+    private final LocalDateTime updatedAt;
+
+    // 件数(削除により減った場合も変更とみなすため)
+    private final long count;
+
+    // 一覧(最終更新日時と件数を集計した結果)
+    public UpdateStamp(LocalDateTime updatedAt, Long count) {
+        this.updatedAt = updatedAt;
+        this.count = count == null ? 0 : count;
+    }
+
+    // 1件(関連するエンティティの更新日時のうち新しい方)
+    public UpdateStamp(LocalDateTime updatedAt, LocalDateTime relatedUpdatedAt) {
+        this.updatedAt = relatedUpdatedAt != null && (updatedAt == null || relatedUpdatedAt.isAfter(updatedAt))
+                ? relatedUpdatedAt
+                : updatedAt;
+        this.count = 1;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return updatedAt + "/" + count;
+    }
+}
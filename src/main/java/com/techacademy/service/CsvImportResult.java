@@ -0,0 +1,56 @@
+package com.techacademy.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// CSVインポートの結果(日報・従業員)
+public class CsvImportResult {
+
+    // 画面に表示するエラーの上限
+    private final int maxErrors;
+
+    // 登録した件数
+    private int importedCount;
+
+    // 登録できなかった行数
+    private int errorCount;
+
+    // エラー内容(先頭から maxErrors 件まで)
+    private final List<String> errors = new ArrayList<String>();
+
+    public CsvImportResult(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    void addImported(int count) {
+        importedCount += count;
+    }
+
+    void addError(long lineNumber, String message) {
+        addErrors(1, lineNumber + "行目: " + message);
+    }
+
+    void addErrors(int rows, String message) {
+        errorCount += rows;
+        if (errors.size() < maxErrors) {
+            errors.add(message);
+        }
+    }
+
+    public int getImportedCount() {
+        return importedCount;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    // 表示していないエラーがあるか
+    public boolean isErrorsTruncated() {
+        return errorCount > errors.size();
+    }
+}
@@ -0,0 +1,25 @@
+package com.techacademy.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+// CSVインポートの入力
+public final class CsvInput {
+
+    private CsvInput() {
+    }
+
+    // UTF-8で読み込む(Excel等で保存した先頭のBOMは読み飛ばす)
+    public static Reader open(InputStream inputStream) throws IOException {
+        PushbackReader reader = new PushbackReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), 1);
+        int first = reader.read();
+        if (first != -1 && first != '\uFEFF') {
+            reader.unread(first);
+        }
+        return reader;
+    }
+}
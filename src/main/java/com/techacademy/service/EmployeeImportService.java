@@ -0,0 +1,264 @@
+package com.techacademy.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.techacademy.PasswordEncoderBusyException;
+import com.techacademy.constants.ErrorKinds;
+import com.techacademy.constants.ErrorMessage;
+import com.techacademy.entity.Employee;
+import com.techacademy.repository.EmployeeRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+// 従業員のCSV一括登録
+// 入力チェック → 社員番号の重複チェック(1回のSELECT) → パスワードのハッシュ化(並列) → バッチ登録 の順に行う
+@Service
+public class EmployeeImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeImportService.class);
+
+    // CSVの項目(1行目はヘッダー)
+    public static final String HEADER_CODE = "Code";
+    public static final String HEADER_NAME = "Name";
+    public static final String HEADER_ROLE = "Role";
+    public static final String HEADER_PASSWORD = "Password";
+
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.withFirstRecordAsHeader().withTrim();
+
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeService employeeService;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final TransactionTemplate batchTransaction;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // 1トランザクションで登録する件数
+    @Value("${employees.import.batch-size:500}")
+    private int batchSize;
+
+    // パスワードを同時にハッシュ化する件数(0の場合はCPUコア数の半分)
+    // ハッシュ化はパスワード処理専用のスレッドプールで行われるため、その待ち行列を溢れさせない範囲とする
+    @Value("${employees.import.hash-parallelism:0}")
+    private int hashParallelism;
+
+    // 画面に表示するエラー行数の上限
+    @Value("${employees.import.max-errors:100}")
+    private int maxErrors;
+
+    public EmployeeImportService(EmployeeRepository employeeRepository, EmployeeService employeeService,
+            PasswordEncoder passwordEncoder, Validator validator, PlatformTransactionManager transactionManager) {
+        this.employeeRepository = employeeRepository;
+        this.employeeService = employeeService;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+    }
+
+
+    // ■■ CSV一括登録(UTF-8、BOM付きも可)
+    // エラーの行は登録せずに結果として返し、それ以外の行を登録する
+    public CsvImportResult importCsv(InputStream inputStream) throws IOException {
+        long startedAt = System.nanoTime();
+        CsvImportResult result = new CsvImportResult(maxErrors);
+
+        List<ImportRow> rows = new ArrayList<ImportRow>();
+        try (CSVParser parser = CSV_FORMAT.parse(CsvInput.open(inputStream))) {
+            if (!parser.getHeaderMap().keySet()
+                    .containsAll(List.of(HEADER_CODE, HEADER_NAME, HEADER_ROLE, HEADER_PASSWORD))) {
+                result.addError(1, "ヘッダーは " + String.join(",", HEADER_CODE, HEADER_NAME, HEADER_ROLE,
+                        HEADER_PASSWORD) + " としてください");
+                return result;
+            }
+            for (CSVRecord record : parser) {
+                ImportRow row = toRow(record, result);
+                if (row != null) {
+                    rows.add(row);
+                }
+            }
+        }
+
+        rows = rejectDuplicateCodes(rows, result);
+        rows = encodePasswords(rows, result);
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            insertBatch(rows.subList(from, Math.min(rows.size(), from + batchSize)), result);
+        }
+
+        log.info("Imported {} employees ({} rows rejected) in {} ms", result.getImportedCount(),
+                result.getErrorCount(), (System.nanoTime() - startedAt) / 1_000_000);
+        return result;
+    }
+
+    // 1行を従業員に変換し、入力チェック(社員番号・氏名・権限・パスワードの形式)を行う
+    private ImportRow toRow(CSVRecord record, CsvImportResult result) {
+        // ヘッダーが1行目のため、データの行番号は2から
+        long lineNumber = record.getRecordNumber() + 1;
+        if (!record.isConsistent()) {
+            result.addError(lineNumber, "項目数が正しくありません");
+            return null;
+        }
+
+        Employee employee = new Employee();
+        employee.setCode(record.get(HEADER_CODE));
+        employee.setName(record.get(HEADER_NAME));
+        employee.setPassword(record.get(HEADER_PASSWORD));
+
+        Employee.Role role = toRole(record.get(HEADER_ROLE));
+        if (role == null) {
+            result.addError(lineNumber, "権限は GENERAL(一般) または ADMIN(管理者) としてください");
+            return null;
+        }
+        employee.setRole(role);
+
+        Set<ConstraintViolation<Employee>> violations = validator.validate(employee);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<Employee> violation = violations.iterator().next();
+            result.addError(lineNumber, violation.getPropertyPath() + ": " + violation.getMessage());
+            return null;
+        }
+
+        if ("".equals(employee.getPassword())) {
+            result.addError(lineNumber, ErrorMessage.getErrorValue(ErrorKinds.BLANK_ERROR));
+            return null;
+        }
+        ErrorKinds passwordCheckResult = employeeService.employeePasswordFormatCheck(employee);
+        if (passwordCheckResult != ErrorKinds.CHECK_OK) {
+            result.addError(lineNumber, ErrorMessage.getErrorValue(passwordCheckResult));
+            return null;
+        }
+        return new ImportRow(lineNumber, employee);
+    }
+
+    // 権限(GENERAL/ADMIN、または画面表示の 一般/管理者)
+    private static Employee.Role toRole(String value) {
+        for (Employee.Role role : Employee.Role.values()) {
+            if (role.name().equalsIgnoreCase(value) || role.getValue().equals(value)) {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    // 社員番号の重複(ファイル内、および登録済み)を除く
+    // 論理削除された従業員の社員番号も主キーとして残っているため、1回のSELECTでまとめて確認する
+    private List<ImportRow> rejectDuplicateCodes(List<ImportRow> rows, CsvImportResult result) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        Set<String> codes = new HashSet<String>();
+        for (ImportRow row : rows) {
+            codes.add(row.employee.getCode());
+        }
+        Set<String> existingCodes = new HashSet<String>(employeeRepository.findCodesIncludingDeletedByCodeIn(codes));
+
+        Set<String> seenCodes = new HashSet<String>();
+        List<ImportRow> accepted = new ArrayList<ImportRow>(rows.size());
+        for (ImportRow row : rows) {
+            String code = row.employee.getCode();
+            if (existingCodes.contains(code) || !seenCodes.add(code)) {
+                result.addError(row.lineNumber, ErrorMessage.getErrorValue(ErrorKinds.DUPLICATE_ERROR));
+            } else {
+                accepted.add(row);
+            }
+        }
+        return accepted;
+    }
+
+    // パスワードのハッシュ化を並列に行う
+    private List<ImportRow> encodePasswords(List<ImportRow> rows, CsvImportResult result) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        int parallelism = hashParallelism > 0 ? hashParallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        List<CompletableFuture<String>> futures = new ArrayList<CompletableFuture<String>>(rows.size());
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, rows.size()))) {
+            for (ImportRow row : rows) {
+                String rawPassword = row.employee.getPassword();
+                futures.add(CompletableFuture.supplyAsync(() -> passwordEncoder.encode(rawPassword), executor));
+            }
+        }
+
+        List<ImportRow> encoded = new ArrayList<ImportRow>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow row = rows.get(i);
+            try {
+                row.employee.setPassword(futures.get(i).join());
+                encoded.add(row);
+            } catch (CompletionException e) {
+                if (!(e.getCause() instanceof PasswordEncoderBusyException)) {
+                    throw e;
+                }
+                // パスワード処理が混雑している場合(ログイン等と競合)はその行のみエラーとする
+                result.addError(row.lineNumber, ErrorMessage.getErrorValue(ErrorKinds.PASSWORD_BUSY_ERROR));
+            }
+        }
+        return encoded;
+    }
+
+    // 1バッチ分をJDBCバッチでINSERTする
+    // 社員番号は入力値を主キーとするため、saveではなくpersistで登録する(saveでは1件ずつ存在確認のSELECTが行われる)
+    private void insertBatch(List<ImportRow> rows, CsvImportResult result) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            batchTransaction.executeWithoutResult(status -> {
+                for (ImportRow row : rows) {
+                    Employee employee = row.employee;
+                    employee.setDeleteFlg(false);
+                    employee.setCreatedAt(now);
+                    employee.setUpdatedAt(now);
+                    entityManager.persist(employee);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            result.addImported(rows.size());
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            // チェック後に他の操作で同じ社員番号が登録された場合など(このバッチは登録しない)
+            log.warn("Failed to import employees at lines {}-{}", rows.get(0).lineNumber,
+                    rows.get(rows.size() - 1).lineNumber, e);
+            result.addErrors(rows.size(), rows.get(0).lineNumber + "～" + rows.get(rows.size() - 1).lineNumber
+                    + "行目: 他の登録と重複したため登録できませんでした");
+        }
+    }
+
+    // インポートする1行
+    private static class ImportRow {
+
+        private final long lineNumber;
+        private final Employee employee;
+
+        ImportRow(long lineNumber, Employee employee) {
+            this.lineNumber = lineNumber;
+            this.employee = employee;
+        }
+    }
+}
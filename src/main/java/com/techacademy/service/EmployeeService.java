@@ -7,25 +7,50 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import io.micrometer.observation.annotation.Observed;
+
+import com.techacademy.PasswordEncoderBusyException;
 import com.techacademy.constants.ErrorKinds;
 import com.techacademy.entity.Employee;
 import com.techacademy.entity.Report;
 import com.techacademy.repository.EmployeeRepository;
+import com.techacademy.repository.EmployeeSnapshot;
+import com.techacademy.repository.UpdateStamp;
 import org.springframework.transaction.annotation.Transactional;
 
+// 公開メソッドの処理時間を employee.service として計測する(タグ method でメソッドを区別)
+@Observed(name = "employee.service")
 @Service
 public class EmployeeService {
 
+    // パスワードの半角英数字チェック(呼び出しごとにコンパイルしないよう1度だけ作成する)
+    private static final Pattern HALF_SIZE_PATTERN = Pattern.compile("^[A-Za-z0-9]+$");
+
     private final EmployeeRepository employeeRepository;
     private final PasswordEncoder passwordEncoder;
 
+    // 従業員削除の最後の段階(残りの日報・集計・従業員の論理削除)を1つのトランザクションで実行する
+    private final TransactionTemplate deleteTransaction;
+
+    // 従業員キャッシュ トランザクション中の破棄はコミット後に行う
+    // (コミット前に破棄すると、並行するログイン等がコミット前の従業員を再びキャッシュしてしまうため)
+    private final Cache employeeCache;
+
     @Autowired
-    public EmployeeService(EmployeeRepository employeeRepository, PasswordEncoder passwordEncoder) {
+    public EmployeeService(EmployeeRepository employeeRepository, PasswordEncoder passwordEncoder,
+            PlatformTransactionManager transactionManager, CacheManager cacheManager) {
         this.employeeRepository = employeeRepository;
         this.passwordEncoder = passwordEncoder;
+        this.deleteTransaction = new TransactionTemplate(transactionManager);
+        this.employeeCache = new TransactionAwareCacheDecorator(cacheManager.getCache(EmployeeRepository.CACHE_NAME));
     }
 
     @Autowired
@@ -43,7 +68,7 @@ public class EmployeeService {
         }
 
         // 従業員番号重複チェック
-        if (findByCode(employee.getCode()) != null) {
+        if (findEntityByCode(employee.getCode()) != null) {
             return ErrorKinds.DUPLICATE_ERROR;
         }
 
@@ -54,6 +79,7 @@ public class EmployeeService {
         employee.setUpdatedAt(now);
 
         employeeRepository.save(employee);
+        employeeCache.evict(employee.getCode());
 
         return ErrorKinds.SUCCESS;
     }
@@ -64,7 +90,7 @@ public class EmployeeService {
     @Transactional
     public ErrorKinds updateEmployee(String code, Employee updatedEmployee) {
         // 従業員を検索
-        Employee employee = findByCode(code);
+        Employee employee = findEntityByCode(code);
 //        if (employee == null) {
 //            return ErrorKinds.NOT_FOUND_ERROR;
 //        }
@@ -89,32 +115,40 @@ public class EmployeeService {
 
         // 更新処理
         employeeRepository.save(employee);
+        employeeCache.evict(code);
 
         return ErrorKinds.SUCCESS;
     }
 
 
     // 従業員削除
-    @Transactional
+    // 日報が多い場合は、先にチャンクごとにコミットしながら日報を論理削除し(ロックの範囲を抑える)、
+    // 最後に1つのトランザクションで残りの日報・月別件数・全文検索インデックス・従業員を削除する
+    // 途中のチャンクで失敗した場合、従業員と未処理の日報は削除されずに残る(論理削除済みの日報は一覧等に表示されない)
+    // 日報の論理削除は未削除の日報のみを対象とするため、再度削除すれば続きから完了する
     public ErrorKinds delete(String code, UserDetail userDetail) {
 
         // 自分を削除しようとした場合はエラーメッセージを表示
-        if (code.equals(userDetail.getEmployee().getCode())) {
+        if (code.equals(userDetail.getCode())) {
             return ErrorKinds.LOGINCHECK_ERROR;
         }
-        Employee employee = findByCode(code);
+
+        // 日報が多い場合のみ、チャンクごとに論理削除する(このメソッドはトランザクションの外で実行する)
+        reportService.deleteByEmployeeInChunks(code);
+
+        return deleteTransaction.execute(status -> deleteWithRemainingReports(code));
+    }
+
+    private ErrorKinds deleteWithRemainingReports(String code) {
+        // 削除対象の従業員に紐づいている残りの日報を一括で論理削除
+        // (一括UPDATEで永続化コンテキストがクリアされるため、従業員の取得より先に行う)
+        reportService.deleteByEmployee(code);
+
+        Employee employee = findEntityByCode(code);
         LocalDateTime now = LocalDateTime.now();
         employee.setUpdatedAt(now);
         employee.setDeleteFlg(true);
-
-        // 削除対象の従業員（employee）に紐づいている、日報のリスト（reportList）を取得
-        List<Report> reportList = reportService.findByEmployee(employee);
-
-        // 日報のリスト（reportList）を拡張for文を使って繰り返し
-        for (Report report : reportList) {
-            // 日報（report）のIDを指定して、日報情報を削除
-            reportService.delete(report.getId(), userDetail);
-        }
+        employeeCache.evict(code);
 
 //      //別パターン
 //        List<Report> reportList = employee.getReportList();
@@ -129,14 +163,44 @@ public class EmployeeService {
     }
 
 
+    // ハッシュ化済みパスワードの更新(ログイン時の再ハッシュ用)
+    // 利用者による変更ではないため更新日時は変更しない
+    @Transactional
+    public Employee updateEncodedPassword(String code, String encodedPassword) {
+        Employee employee = findEntityByCode(code);
+        if (employee != null) {
+            employee.setPassword(encodedPassword);
+            employeeCache.evict(code);
+        }
+        return employee;
+    }
+
+
     // 従業員一覧表示処理
     public List<Employee> findAll() {
         return employeeRepository.findAll();
     }
 
 
+    // 従業員一覧の更新確認(条件付きGET) 最終更新日時と件数(従業員は読み込まない)
+    public UpdateStamp getEmployeeListStamp() {
+        return employeeRepository.findUpdateStamp();
+    }
+
+
     // 1件を検索
+    // 検索結果はキャッシュする(保存・更新・削除のコミット後に破棄)
+    // キャッシュには変更できない項目のみを保存し、呼び出しごとに新しいエンティティを作成して返す
+    // (返した従業員を変更してもキャッシュ・他のスレッドには影響しない 永続化コンテキストにも含まれない)
     public Employee findByCode(String code) {
+        EmployeeSnapshot snapshot = employeeRepository.findSnapshotByCode(code);
+        // 取得できなかった場合はnullを返す
+        return snapshot == null ? null : snapshot.toEmployee();
+    }
+
+
+    // 1件を検索(更新処理用 キャッシュを経由せず、管理状態のエンティティを取得する)
+    private Employee findEntityByCode(String code) {
         // findByIdで検索
         Optional<Employee> option = employeeRepository.findById(code);
         // 取得できなかった場合はnullを返す
@@ -148,6 +212,33 @@ public class EmployeeService {
     // 従業員パスワードチェック
     public ErrorKinds employeePasswordCheck(Employee employee) {
 
+        // 形式チェック
+        ErrorKinds formatCheckResult = employeePasswordFormatCheck(employee);
+        if (formatCheckResult != ErrorKinds.CHECK_OK) {
+            return formatCheckResult;
+        }
+
+        // パスワードが空白の場合はエラーチェックしない
+        // if ("".equals(employee.getPassword())) {
+        // return ErrorKinds.SUCCESS;
+        // }
+
+        try {
+            employee.setPassword(passwordEncoder.encode(employee.getPassword()));
+        } catch (PasswordEncoderBusyException e) {
+            // パスワード処理が混雑している場合
+            return ErrorKinds.PASSWORD_BUSY_ERROR;
+        }
+
+        return ErrorKinds.CHECK_OK;
+    }
+
+
+
+    // 従業員パスワードの形式チェック(ハッシュ化は行わない)
+    // 一括登録ではハッシュ化を並列に行うため、形式チェックのみを先に行う
+    public ErrorKinds employeePasswordFormatCheck(Employee employee) {
+
         // 従業員パスワードの半角英数字チェック処理
         if (isHalfSizeCheckError(employee)) {
             return ErrorKinds.HALFSIZE_ERROR;
@@ -158,24 +249,16 @@ public class EmployeeService {
             return ErrorKinds.RANGECHECK_ERROR;
         }
 
-        // パスワードが空白の場合はエラーチェックしない
-        // if ("".equals(employee.getPassword())) {
-        // return ErrorKinds.SUCCESS;
-        // }
-
-        employee.setPassword(passwordEncoder.encode(employee.getPassword()));
-
         return ErrorKinds.CHECK_OK;
     }
 
 
 
     // 従業員パスワードの半角英数字チェック処理
-    private boolean isHalfSizeCheckError(Employee employee) {
+    public boolean isHalfSizeCheckError(Employee employee) {
 
         // 半角英数字チェック
-        Pattern pattern = Pattern.compile("^[A-Za-z0-9]+$");
-        Matcher matcher = pattern.matcher(employee.getPassword());
+        Matcher matcher = HALF_SIZE_PATTERN.matcher(employee.getPassword());
         return !matcher.matches();
     }
 
@@ -0,0 +1,126 @@
+package com.techacademy.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+
+import com.techacademy.entity.Report;
+import com.techacademy.repository.UpdateStamp;
+
+// 描画済みHTMLのキャッシュ(日報詳細の本文・権限別のサイドメニュー)
+// キャッシュするフラグメントにはCSRFトークン等のユーザー・セッション固有の値を含めないこと
+// (フォームは各画面で毎回描画する)
+// 件数の上限を超えた場合はCaffeineの方式(使用頻度・最終使用を考慮)で古いものから破棄する
+@Component
+public class RenderedFragmentCache {
+
+    // 日報詳細の本文(reports/detail_body :: body)
+    private static final String REPORT_DETAIL_TEMPLATE = "reports/detail_body";
+    private static final String REPORT_DETAIL_SELECTOR = "body";
+    // サイドメニューのリンク部分(common/side :: menu)
+    private static final String SIDEBAR_TEMPLATE = "common/side";
+    private static final String SIDEBAR_SELECTOR = "menu";
+
+    private final ITemplateEngine templateEngine;
+    private final JakartaServletWebApplication application;
+
+    // 日報ID → 描画時の更新日時と本文のHTML
+    private final Cache<Integer, RenderedReport> reportDetails;
+    // 権限 → サイドメニューのHTML
+    private final Cache<String, String> sidebarMenus;
+
+    public RenderedFragmentCache(ITemplateEngine templateEngine, ServletContext servletContext,
+            MeterRegistry meterRegistry, @Value("${reports.detail.cache-size:1000}") long reportDetailCacheSize,
+            @Value("${sidebar.cache-size:16}") long sidebarCacheSize) {
+        this.templateEngine = templateEngine;
+        this.application = JakartaServletWebApplication.buildApplication(servletContext);
+        this.reportDetails = Caffeine.newBuilder().maximumSize(reportDetailCacheSize).recordStats().build();
+        this.sidebarMenus = Caffeine.newBuilder().maximumSize(sidebarCacheSize).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, reportDetails, "reportDetailFragments");
+        CaffeineCacheMetrics.monitor(meterRegistry, sidebarMenus, "sidebarFragments");
+    }
+
+    // ■■ 日報詳細の本文
+    // 更新日時(日報・従業員の新しい方)がキャッシュ時と同じであれば、日報を読み込まずに描画済みのHTMLを返す
+    // 日報が見つからない場合(stampがnull)はキャッシュしない
+    public String getReportDetail(Integer id, UpdateStamp stamp, Supplier<Report> loader) {
+        if (stamp == null) {
+            return renderReportDetail(loader.get());
+        }
+        LocalDateTime updatedAt = stamp.getUpdatedAt();
+        RenderedReport cached = reportDetails.getIfPresent(id);
+        if (cached != null && Objects.equals(cached.updatedAt, updatedAt)) {
+            return cached.html;
+        }
+        String html = renderReportDetail(loader.get());
+        reportDetails.put(id, new RenderedReport(updatedAt, html));
+        return html;
+    }
+
+    // 日報の更新・削除時に破棄する
+    // (破棄とコミットの間に古い内容が再度キャッシュされても、更新日時が一致しないため使用されない)
+    public void evictReportDetail(Integer id) {
+        reportDetails.invalidate(id);
+    }
+
+    // ■■ ログインユーザーの権限に応じたサイドメニュー(common/side から呼び出す)
+    public String getSidebarMenu() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean admin = hasAuthority(authentication, "ADMIN");
+        boolean general = hasAuthority(authentication, "GENERAL");
+        String role = admin ? "ADMIN" : general ? "GENERAL" : "";
+        return sidebarMenus.get(role,
+                key -> render(SIDEBAR_TEMPLATE, SIDEBAR_SELECTOR, Map.of("admin", admin, "general", general)));
+    }
+
+    private String renderReportDetail(Report report) {
+        return render(REPORT_DETAIL_TEMPLATE, REPORT_DETAIL_SELECTOR,
+                report == null ? Map.of() : Map.of("report", report));
+    }
+
+    private static boolean hasAuthority(Authentication authentication, String authority) {
+        return authentication != null
+                && authentication.getAuthorities().stream().anyMatch(a -> authority.equals(a.getAuthority()));
+    }
+
+    // 処理中のリクエストのコンテキスト(URLの組み立てに使用)でフラグメントを描画する
+    private String render(String template, String selector, Map<String, Object> variables) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder
+                .currentRequestAttributes();
+        HttpServletRequest request = attributes.getRequest();
+        WebContext context = new WebContext(application.buildExchange(request, attributes.getResponse()),
+                request.getLocale(), variables);
+        return templateEngine.process(template, Set.of(selector), context);
+    }
+
+    // 描画時の更新日時と描画結果
+    private static final class RenderedReport {
+        private final LocalDateTime updatedAt;
+        private final String html;
+
+        private RenderedReport(LocalDateTime updatedAt, String html) {
+            this.updatedAt = updatedAt;
+            this.html = html;
+        }
+    }
+}
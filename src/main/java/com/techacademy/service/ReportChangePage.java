@@ -0,0 +1,48 @@
+package com.techacademy.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.techacademy.repository.ReportChange;
+
+// 差分エクスポートの1ページ分((updated_at, id) の昇順)
+// 次のページは nextSince・nextCursorId をそのまま since・cursorId に指定して取得する
+// more が false になるまで取得した後の nextSince・nextCursorId が、次回の差分取得の起点(ウォーターマーク)となる
+public class ReportChangePage {
+
+    // 更新・論理削除された日報
+    private final List<ReportChange> changes;
+
+    // 続きのページがあるか
+    private final boolean more;
+
+    // この日時までに更新された日報を対象とした(以降の更新は次回以降に取得する)
+    private final LocalDateTime until;
+
+    public ReportChangePage(List<ReportChange> changes, boolean more, LocalDateTime until) {
+        this.changes = changes;
+        this.more = more;
+        this.until = until;
+    }
+
+    public List<ReportChange> getChanges() {
+        return changes;
+    }
+
+    public boolean isMore() {
+        return more;
+    }
+
+    public LocalDateTime getUntil() {
+        return until;
+    }
+
+    // 次のページのカーソル(ページ末尾の日報) 0件の場合はnull(同じカーソルで再度取得する)
+    public LocalDateTime getNextSince() {
+        return changes.isEmpty() ? null : changes.get(changes.size() - 1).getUpdatedAt();
+    }
+
+    public Integer getNextCursorId() {
+        return changes.isEmpty() ? null : changes.get(changes.size() - 1).getId();
+    }
+}
@@ -0,0 +1,166 @@
+package com.techacademy.service;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import com.techacademy.repository.ReportFilter;
+
+// 日報CSVのバックグラウンドエクスポート1件分の状態
+// 状態・進捗はエクスポートのスレッドが更新し、画面の表示スレッドが参照する
+public class ReportExportJob {
+
+    public enum Status {
+        // 実行待ち
+        QUEUED,
+        // 実行中
+        RUNNING,
+        // 完了(ダウンロード可)
+        COMPLETED,
+        // 失敗
+        FAILED
+    }
+
+    private final String id;
+
+    // 依頼した従業員の社員番号(本人のみ参照・ダウンロードできる)
+    private final String ownerCode;
+
+    // gzipで圧縮するか
+    private final boolean gzip;
+
+    // 出力する日報の絞り込み条件(依頼時の一覧画面の条件)
+    private final ReportFilter filter;
+
+    // 出力先のファイル(完了後に配置する)
+    private final Path file;
+
+    private final LocalDateTime createdAt;
+
+    private volatile Status status = Status.QUEUED;
+
+    // 出力対象の件数(開始時に数える)と書き出した件数
+    private volatile long totalRows;
+    private volatile long rowsWritten;
+
+    // 開始時刻(残り時間の計算用)
+    private volatile long startedNanos;
+
+    private volatile LocalDateTime finishedAt;
+
+    // 完了時のファイルサイズ
+    private volatile long fileSize;
+
+    public ReportExportJob(String id, String ownerCode, boolean gzip, ReportFilter filter, Path file) {
+        this.id = id;
+        this.ownerCode = ownerCode;
+        this.gzip = gzip;
+        this.filter = filter;
+        this.file = file;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    void start(long totalRows) {
+        this.totalRows = totalRows;
+        this.startedNanos = System.nanoTime();
+        this.status = Status.RUNNING;
+    }
+
+    void progress(long rowsWritten) {
+        this.rowsWritten = rowsWritten;
+    }
+
+    void complete(long fileSize) {
+        this.fileSize = fileSize;
+        this.finishedAt = LocalDateTime.now();
+        this.status = Status.COMPLETED;
+    }
+
+    void fail() {
+        this.finishedAt = LocalDateTime.now();
+        this.status = Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getOwnerCode() {
+        return ownerCode;
+    }
+
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    public ReportFilter getFilter() {
+        return filter;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public boolean isCompleted() {
+        return status == Status.COMPLETED;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    // 進捗(%) 件数が0件の場合は開始した時点で100%とする
+    public int getProgressPercent() {
+        if (status == Status.QUEUED) {
+            return 0;
+        }
+        long total = totalRows;
+        if (isCompleted() || total == 0) {
+            return 100;
+        }
+        return (int) Math.min(99, rowsWritten * 100 / total);
+    }
+
+    // 残り時間(秒) これまでの出力速度から見積もる(実行中で1行以上書き出すまではnull)
+    public Long getEtaSeconds() {
+        long written = rowsWritten;
+        if (status != Status.RUNNING || written == 0) {
+            return null;
+        }
+        long elapsedNanos = System.nanoTime() - startedNanos;
+        long remaining = Math.max(0, totalRows - written);
+        return (long) ((double) elapsedNanos / written * remaining / 1_000_000_000L);
+    }
+
+    // ダウンロード時のファイル名・種類
+    public String getFileName() {
+        return gzip ? "reports.csv.gz" : "reports.csv";
+    }
+
+    public String getContentType() {
+        return gzip ? "application/gzip" : "text/csv;charset=UTF-8";
+    }
+}
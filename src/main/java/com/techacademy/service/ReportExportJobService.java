@@ -0,0 +1,208 @@
+package com.techacademy.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.techacademy.repository.ReportFilter;
+
+// 日報CSVのバックグラウンドエクスポート
+// リクエスト処理スレッドとは別の、同時実行数と待ち行列を制限したスレッドプールでファイル(スプールディレクトリ)に書き出す
+// (DB接続を長時間使用するのも同時実行数の分だけとなる)
+// 完了したファイルは保持期間(TTL)を過ぎると定期的に削除する ジョブの状態はメモリ上のみで保持する
+@Service
+public class ReportExportJobService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportExportJobService.class);
+
+    // gzipの出力バッファ
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // このサービスが作成するファイル名(ジョブID.csv[.gz][.part]) 定期削除はこの名前のファイルだけを対象とする
+    private static final Pattern JOB_FILE_NAME = Pattern
+            .compile("([0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12})\\.csv(\\.gz)?(\\.part)?");
+
+    private final ReportService reportService;
+    private final ThreadPoolExecutor executor;
+    private final Path spoolDir;
+    private final Duration ttl;
+
+    // ジョブID → ジョブ
+    private final Map<String, ReportExportJob> jobs = new ConcurrentHashMap<String, ReportExportJob>();
+
+    // 混雑により受け付けなかった件数・失敗した件数
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+
+    public ReportExportJobService(ReportService reportService, MeterRegistry meterRegistry,
+            @Value("${reports.export.jobs.pool-size:1}") int poolSize,
+            @Value("${reports.export.jobs.queue-capacity:4}") int queueCapacity,
+            @Value("${reports.export.jobs.spool-dir:}") String spoolDir,
+            @Value("${reports.export.jobs.instance-id:}") String instanceId,
+            @Value("${server.port:8080}") int serverPort,
+            @Value("${reports.export.jobs.ttl:1h}") Duration ttl) throws IOException {
+        this.reportService = reportService;
+        this.ttl = ttl;
+        // 未指定の場合は一時ディレクトリ配下
+        // 複数のインスタンスで共有しても他のインスタンスのファイルを削除しないよう、インスタンスごとのサブディレクトリに出力する
+        this.spoolDir = Files.createDirectories((spoolDir.isBlank()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "daily-report-export")
+                : Paths.get(spoolDir)).resolve(instanceId.isBlank() ? defaultInstanceId(serverPort) : instanceId));
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "report-export-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("reports.export.jobs.queue.size", executor, e -> e.getQueue().size())
+                .description("エクスポートの待ち件数").register(meterRegistry);
+        Gauge.builder("reports.export.jobs.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("エクスポートの実行中件数").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("reports.export.jobs.rejected").description("混雑により受け付けなかった件数")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("reports.export.jobs.failed").description("失敗したエクスポートの件数")
+                .register(meterRegistry);
+    }
+
+    // インスタンスの識別子(ホスト名-ポート番号) 再起動しても同じ値となり、再起動前のファイルを削除できる
+    private static String defaultInstanceId(int serverPort) {
+        String hostName;
+        try {
+            hostName = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            hostName = "localhost";
+        }
+        return (hostName + "-" + serverPort).replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    // ■■ エクスポートの受付(待ち行列が一杯の場合はnull)
+    public ReportExportJob submit(String ownerCode, boolean gzip, ReportFilter filter) {
+        String id = UUID.randomUUID().toString();
+        ReportExportJob job = new ReportExportJob(id, ownerCode, gzip, filter,
+                spoolDir.resolve(id + (gzip ? ".csv.gz" : ".csv")));
+        jobs.put(id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(id);
+            rejectedCounter.increment();
+            return null;
+        }
+        return job;
+    }
+
+    // ■■ ジョブの取得(依頼した本人以外・存在しない場合はnull)
+    public ReportExportJob findJob(String id, String ownerCode) {
+        ReportExportJob job = jobs.get(id);
+        return job != null && job.getOwnerCode().equals(ownerCode) ? job : null;
+    }
+
+    // 書き出し中のファイルに書き、完了後に出力先へ移動する(書き出し途中のファイルはダウンロードさせない)
+    private void run(ReportExportJob job) {
+        Path partFile = job.getFile().resolveSibling(job.getFile().getFileName() + ".part");
+        try {
+            job.start(reportService.countReports(job.getFilter()));
+            try (OutputStream file = Files.newOutputStream(partFile);
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(
+                            job.isGzip() ? new GZIPOutputStream(file, BUFFER_SIZE) : file, StandardCharsets.UTF_8),
+                            BUFFER_SIZE)) {
+                reportService.writeReportsCsv(writer, job.getFilter(), job::progress);
+            }
+            Files.move(partFile, job.getFile(), StandardCopyOption.ATOMIC_MOVE);
+            job.complete(Files.size(job.getFile()));
+            log.info("Exported {} reports to {}", job.getRowsWritten(), job.getFile());
+        } catch (Exception e) {
+            log.warn("Failed to export reports: job {}", job.getId(), e);
+            failedCounter.increment();
+            job.fail();
+            deleteQuietly(partFile);
+        }
+    }
+
+    // ■■ 保持期間を過ぎたジョブとファイルの削除
+    // 再起動前のジョブのファイル(メモリ上にジョブがないもの)も、更新日時が保持期間を過ぎていれば削除する
+    // (スプールディレクトリ内のジョブのファイル名に一致するものだけ 他のファイルは削除しない)
+    @Scheduled(fixedDelayString = "${reports.export.jobs.cleanup-interval:PT5M}")
+    public void removeExpiredJobs() {
+        LocalDateTime expiredBefore = LocalDateTime.now().minus(ttl);
+        for (Iterator<ReportExportJob> iterator = jobs.values().iterator(); iterator.hasNext();) {
+            ReportExportJob job = iterator.next();
+            if (job.isFinished() && job.getFinishedAt().isBefore(expiredBefore)) {
+                iterator.remove();
+                deleteQuietly(job.getFile());
+            }
+        }
+
+        Instant orphanedBefore = Instant.now().minus(ttl);
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            files.filter(file -> isOrphaned(file, orphanedBefore)).forEach(ReportExportJobService::deleteQuietly);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean isOrphaned(Path file, Instant orphanedBefore) {
+        Matcher matcher = JOB_FILE_NAME.matcher(file.getFileName().toString());
+        if (!matcher.matches() || jobs.containsKey(matcher.group(1)) || !Files.isRegularFile(file)) {
+            return false;
+        }
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(orphanedBefore);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete export file {}", file, e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
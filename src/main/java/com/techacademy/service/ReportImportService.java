@@ -0,0 +1,248 @@
+package com.techacademy.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.techacademy.constants.ErrorKinds;
+import com.techacademy.constants.ErrorMessage;
+import com.techacademy.entity.Employee;
+import com.techacademy.entity.Report;
+import com.techacademy.repository.EmployeeRepository;
+import com.techacademy.repository.ReportDateKey;
+import com.techacademy.repository.ReportIndexItem;
+import com.techacademy.repository.ReportRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+// 日報のCSVインポート
+// アップロードされたCSVを1行ずつ読み、一定件数ごとに重複チェック(1回のSELECT)とバッチ登録を行う
+// (件数に関わらずメモリには1バッチ分の日報のみを保持する)
+@Service
+public class ReportImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportImportService.class);
+
+    // CSVの項目(1行目はヘッダー)
+    public static final String HEADER_EMPLOYEE_CODE = "Employee Code";
+    public static final String HEADER_REPORT_DATE = "Report Date";
+    public static final String HEADER_TITLE = "Title";
+    public static final String HEADER_CONTENT = "Content";
+
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.withFirstRecordAsHeader().withTrim();
+
+    private final ReportRepository reportRepository;
+    private final EmployeeRepository employeeRepository;
+    private final ReportStatsService reportStatsService;
+    private final ReportSearchIndex reportSearchIndex;
+    private final Validator validator;
+    private final TransactionTemplate batchTransaction;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // 1トランザクションで登録する件数
+    @Value("${reports.import.batch-size:1000}")
+    private int batchSize;
+
+    // 画面に表示するエラー行数の上限
+    @Value("${reports.import.max-errors:100}")
+    private int maxErrors;
+
+    public ReportImportService(ReportRepository reportRepository, EmployeeRepository employeeRepository,
+            ReportStatsService reportStatsService, ReportSearchIndex reportSearchIndex, Validator validator,
+            PlatformTransactionManager transactionManager) {
+        this.reportRepository = reportRepository;
+        this.employeeRepository = employeeRepository;
+        this.reportStatsService = reportStatsService;
+        this.reportSearchIndex = reportSearchIndex;
+        this.validator = validator;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+    }
+
+
+    // ■■ CSVインポート(UTF-8、BOM付きも可)
+    // 形式エラー・入力チェックエラー・重複などの行は登録せずに結果として返し、それ以外の行を登録する
+    public CsvImportResult importCsv(InputStream inputStream) throws IOException {
+        long startedAt = System.nanoTime();
+        CsvImportResult result = new CsvImportResult(maxErrors);
+
+        try (CSVParser parser = CSV_FORMAT.parse(CsvInput.open(inputStream))) {
+            if (!parser.getHeaderMap().keySet().containsAll(
+                    List.of(HEADER_EMPLOYEE_CODE, HEADER_REPORT_DATE, HEADER_TITLE, HEADER_CONTENT))) {
+                result.addError(1, "ヘッダーは " + String.join(",", HEADER_EMPLOYEE_CODE, HEADER_REPORT_DATE,
+                        HEADER_TITLE, HEADER_CONTENT) + " としてください");
+                return result;
+            }
+
+            // ファイル内の重複チェック用(登録した社員番号・日付)
+            Set<ReportDateKey> importedKeys = new HashSet<ReportDateKey>();
+            List<ImportRow> batch = new ArrayList<ImportRow>(batchSize);
+            for (CSVRecord record : parser) {
+                ImportRow row = toRow(record, result);
+                if (row == null) {
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() >= batchSize) {
+                    importBatch(batch, importedKeys, result);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                importBatch(batch, importedKeys, result);
+            }
+        }
+
+        log.info("Imported {} reports ({} rows rejected) in {} ms", result.getImportedCount(), result.getErrorCount(),
+                (System.nanoTime() - startedAt) / 1_000_000);
+        return result;
+    }
+
+    // 1行を日報に変換し、Reportの入力チェック(タイトル・内容・日付)を行う
+    private ImportRow toRow(CSVRecord record, CsvImportResult result) {
+        // ヘッダーが1行目のため、データの行番号は2から
+        long lineNumber = record.getRecordNumber() + 1;
+        if (!record.isConsistent()) {
+            result.addError(lineNumber, "項目数が正しくありません");
+            return null;
+        }
+
+        String employeeCode = record.get(HEADER_EMPLOYEE_CODE);
+        if (employeeCode.isEmpty()) {
+            result.addError(lineNumber, "社員番号を入力してください");
+            return null;
+        }
+
+        Report report = new Report();
+        report.setTitle(record.get(HEADER_TITLE));
+        report.setContent(record.get(HEADER_CONTENT));
+        String reportDate = record.get(HEADER_REPORT_DATE);
+        if (!reportDate.isEmpty()) {
+            try {
+                report.setReportDate(LocalDate.parse(reportDate));
+            } catch (DateTimeParseException e) {
+                result.addError(lineNumber, "日付は yyyy-MM-dd の形式で入力してください");
+                return null;
+            }
+        }
+
+        Set<ConstraintViolation<Report>> violations = validator.validate(report);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<Report> violation = violations.iterator().next();
+            result.addError(lineNumber, violation.getPropertyPath() + ": " + violation.getMessage());
+            return null;
+        }
+        return new ImportRow(lineNumber, employeeCode, report);
+    }
+
+    // 1バッチ分の登録
+    // 社員番号の存在と、社員番号・日付の重複はバッチ単位でまとめて1回ずつ問い合わせる
+    private void importBatch(List<ImportRow> batch, Set<ReportDateKey> importedKeys, CsvImportResult result) {
+        Set<String> employeeCodes = new HashSet<String>();
+        Set<LocalDate> reportDates = new HashSet<LocalDate>();
+        for (ImportRow row : batch) {
+            employeeCodes.add(row.employeeCode);
+            reportDates.add(row.report.getReportDate());
+        }
+        Set<String> existingEmployees = new HashSet<String>(employeeRepository.findCodesByCodeIn(employeeCodes));
+        Set<ReportDateKey> existingKeys = new HashSet<ReportDateKey>(
+                reportRepository.findDateKeys(employeeCodes, reportDates));
+
+        List<ImportRow> accepted = new ArrayList<ImportRow>(batch.size());
+        Set<ReportDateKey> acceptedKeys = new HashSet<ReportDateKey>();
+        for (ImportRow row : batch) {
+            ReportDateKey key = new ReportDateKey(row.employeeCode, row.report.getReportDate());
+            if (!existingEmployees.contains(row.employeeCode)) {
+                result.addError(row.lineNumber, "社員番号 " + row.employeeCode + " は登録されていません");
+            } else if (existingKeys.contains(key) || importedKeys.contains(key) || !acceptedKeys.add(key)) {
+                result.addError(row.lineNumber, ErrorMessage.getErrorValue(ErrorKinds.DUPLICATE_DATE_ERROR));
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            batchTransaction.executeWithoutResult(status -> insert(accepted));
+            result.addImported(accepted.size());
+            // 登録できたバッチの社員番号・日付だけを以降のバッチの重複チェックに使う
+            // (ロールバックしたバッチの行は登録されていないため、後の行を重複として扱わない)
+            importedKeys.addAll(acceptedKeys);
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            // チェック後に他の操作で同じ日付の日報が登録された場合など(このバッチは登録しない)
+            log.warn("Failed to import reports at lines {}-{}", accepted.get(0).lineNumber,
+                    accepted.get(accepted.size() - 1).lineNumber, e);
+            result.addErrors(accepted.size(), accepted.get(0).lineNumber + "～"
+                    + accepted.get(accepted.size() - 1).lineNumber + "行目: 他の登録と重複したため登録できませんでした");
+        }
+    }
+
+    // JDBCバッチでINSERTし、月別件数の集計と全文検索インデックスにも反映する
+    private void insert(List<ImportRow> rows) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Map<Integer, Integer>> monthlyCounts = new HashMap<String, Map<Integer, Integer>>();
+        List<ReportIndexItem> indexItems = new ArrayList<ReportIndexItem>(rows.size());
+
+        for (ImportRow row : rows) {
+            Report report = row.report;
+            // 従業員は参照(外部キー)としてのみ使用するためSELECTしない
+            report.setEmployee(entityManager.getReference(Employee.class, row.employeeCode));
+            report.setDeleteFlg(false);
+            report.setCreatedAt(now);
+            report.setUpdatedAt(now);
+            entityManager.persist(report);
+
+            monthlyCounts.computeIfAbsent(row.employeeCode, code -> new HashMap<Integer, Integer>())
+                    .merge(ReportStatsService.toTargetMonth(report.getReportDate()), 1, Integer::sum);
+            indexItems.add(new ReportIndexItem(report.getId(), row.employeeCode, report.getReportDate(),
+                    report.getTitle(), report.getContent()));
+        }
+        // バッチ分のINSERTを送信し、登録した日報を永続化コンテキストから切り離す
+        entityManager.flush();
+        entityManager.clear();
+
+        monthlyCounts.forEach((employeeCode, counts) -> counts
+                .forEach((targetMonth, count) -> reportStatsService.reportsAdded(employeeCode, targetMonth, count)));
+        reportSearchIndex.indexAllAfterCommit(indexItems);
+    }
+
+    // インポートする1行
+    private static class ImportRow {
+
+        private final long lineNumber;
+        private final String employeeCode;
+        private final Report report;
+
+        ImportRow(long lineNumber, String employeeCode, Report report) {
+            this.lineNumber = lineNumber;
+            this.employeeCode = employeeCode;
+            this.report = report;
+        }
+    }
+}
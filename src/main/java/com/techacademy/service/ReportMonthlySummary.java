@@ -0,0 +1,52 @@
+package com.techacademy.service;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import com.techacademy.repository.EmployeeMonthlyCount;
+
+// 集計画面の表示内容(指定月の従業員別日報件数)
+public class ReportMonthlySummary {
+
+    // 対象年月
+    private final YearMonth month;
+
+    // 本日までに提出されているべき件数(平日の日数)
+    private final int expectedCount;
+
+    // 従業員別の件数(社員番号順)
+    private final List<EmployeeMonthlyCount> counts;
+
+    public ReportMonthlySummary(YearMonth month, int expectedCount, List<EmployeeMonthlyCount> counts) {
+        this.month = month;
+        this.expectedCount = expectedCount;
+        this.counts = counts;
+    }
+
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    public int getExpectedCount() {
+        return expectedCount;
+    }
+
+    public List<EmployeeMonthlyCount> getCounts() {
+        return counts;
+    }
+
+    // 提出が遅れているか
+    public boolean isBehind(EmployeeMonthlyCount count) {
+        return count.getReportCount() < expectedCount;
+    }
+
+    // 提出が遅れている従業員の人数
+    public long getBehindCount() {
+        return counts.stream().filter(this::isBehind).count();
+    }
+
+    // 全従業員の件数の合計
+    public long getTotalCount() {
+        return counts.stream().mapToLong(EmployeeMonthlyCount::getReportCount).sum();
+    }
+}
@@ -0,0 +1,46 @@
+package com.techacademy.service;
+
+import java.util.List;
+
+import com.techacademy.repository.ReportListItem;
+
+// 日報一覧の1ページ分(キーセットページング)
+public class ReportPage {
+
+    // 表示する日報(report_date DESC, id DESC の順)
+    private final List<ReportListItem> reports;
+
+    // 前のページ(新しい日報)があるか
+    private final boolean previous;
+
+    // 次のページ(古い日報)があるか
+    private final boolean next;
+
+    public ReportPage(List<ReportListItem> reports, boolean previous, boolean next) {
+        this.reports = reports;
+        this.previous = previous;
+        this.next = next;
+    }
+
+    public List<ReportListItem> getReports() {
+        return reports;
+    }
+
+    public boolean hasPrevious() {
+        return previous && !reports.isEmpty();
+    }
+
+    public boolean hasNext() {
+        return next && !reports.isEmpty();
+    }
+
+    // 前のページへのカーソル(ページ先頭の日報)
+    public ReportListItem getFirst() {
+        return reports.isEmpty() ? null : reports.get(0);
+    }
+
+    // 次のページへのカーソル(ページ末尾の日報)
+    public ReportListItem getLast() {
+        return reports.isEmpty() ? null : reports.get(reports.size() - 1);
+    }
+}
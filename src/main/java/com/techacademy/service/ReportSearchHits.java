@@ -0,0 +1,34 @@
+package com.techacademy.service;
+
+import java.util.List;
+
+// 全文検索インデックスの検索結果(一致した日報のID)
+public class ReportSearchHits {
+
+    // 一致した日報のID(表示順)
+    private final List<Integer> ids;
+
+    // 一致した件数
+    private final long totalHits;
+
+    // 件数が下限値であるか(一致件数が多い場合は数え切らずに打ち切る)
+    private final boolean totalHitsLowerBound;
+
+    public ReportSearchHits(List<Integer> ids, long totalHits, boolean totalHitsLowerBound) {
+        this.ids = ids;
+        this.totalHits = totalHits;
+        this.totalHitsLowerBound = totalHitsLowerBound;
+    }
+
+    public List<Integer> getIds() {
+        return ids;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    public boolean isTotalHitsLowerBound() {
+        return totalHitsLowerBound;
+    }
+}
@@ -0,0 +1,440 @@
+package com.techacademy.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.cjk.CJKBigramFilter;
+import org.apache.lucene.analysis.cjk.CJKWidthFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.QueryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import com.techacademy.repository.ReportIndexItem;
+import com.techacademy.repository.ReportRepository;
+
+// 日報のタイトル・内容の全文検索インデックス(Lucene)
+// 日本語は文字のbigram(と1文字検索用のunigram)に分割して登録し、検索語をbigramのフレーズとして検索する
+// 登録・更新・削除はトランザクションのコミット後に反映する(ロールバックされた変更は反映しない)
+@Component
+public class ReportSearchIndex implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportSearchIndex.class);
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_EMPLOYEE_CODE = "employeeCode";
+    private static final String FIELD_REPORT_DATE = "reportDate";
+    private static final String FIELD_TITLE = "title";
+    private static final String FIELD_CONTENT = "content";
+
+    // 検索結果の並び順(一致度が同じ場合は新しい日報を先に表示)
+    private static final Sort SORT = new Sort(SortField.FIELD_SCORE,
+            new SortField(FIELD_REPORT_DATE, SortField.Type.LONG, true));
+
+    private final ReportRepository reportRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final QueryBuilder queryBuilder;
+
+    // 再構築に使用するスレッド数(0の場合はCPUコア数とDBコネクションプールの1/4の小さい方)
+    // 各スレッドは読み出しの間DBコネクションを1つ使用し続けるため、指定した場合もプールの半分までに制限する
+    @Value("${reports.search.rebuild-threads:0}")
+    private int rebuildThreads;
+
+    // DBコネクションプールの大きさ
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    // 起動時にインデックスを再構築するか
+    @Value("${reports.search.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    // 差分更新と、再構築完了時の読み直しの反映を1つずつ行うためのロック
+    // (読み直した内容で、その後にコミットされた差分更新を上書きしない)
+    private final Object writeLock = new Object();
+
+    // 再構築中の変更(再構築の完了後にDBから読み直して反映する)
+    private final Object rebuildLock = new Object();
+    private boolean rebuilding;
+    private Set<Integer> changedIdsDuringRebuild;
+    private Set<String> changedEmployeesDuringRebuild;
+
+    public ReportSearchIndex(ReportRepository reportRepository, PlatformTransactionManager transactionManager,
+            @Value("${reports.search.index-dir:}") String indexDir) throws IOException {
+        this.reportRepository = reportRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        // 保存先が未指定の場合はメモリ上に作成する(起動時に再構築する)
+        this.directory = StringUtils.hasText(indexDir) ? FSDirectory.open(Paths.get(indexDir))
+                : new ByteBuffersDirectory();
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(bigramAnalyzer(true))
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searcherManager = new SearcherManager(writer, null);
+        this.queryBuilder = new QueryBuilder(bigramAnalyzer(false));
+    }
+
+    // 文字幅の統一(全角英数・半角カナ)、小文字化のうえ、日本語をbigramに分割する
+    // 登録時は1文字での検索に一致させるため、unigramも出力する
+    private static Analyzer bigramAnalyzer(boolean outputUnigrams) {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                StandardTokenizer source = new StandardTokenizer();
+                TokenStream stream = new CJKWidthFilter(source);
+                stream = new LowerCaseFilter(stream);
+                stream = new CJKBigramFilter(stream, CJKBigramFilter.HAN | CJKBigramFilter.HIRAGANA
+                        | CJKBigramFilter.KATAKANA | CJKBigramFilter.HANGUL, outputUnigrams);
+                return new TokenStreamComponents(source, stream);
+            }
+        };
+    }
+
+
+    // ■■ 検索
+    // 空白(全角を含む)で区切った語をすべて含む日報(タイトル・内容のいずれか)を最大 limit 件取得する
+    // employeeCode を指定した場合はその従業員の日報のみを対象とする
+    public ReportSearchHits search(String keywords, String employeeCode, int limit) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        boolean hasTerm = false;
+        for (String keyword : keywords.trim().split("[\\s　]+")) {
+            Query keywordQuery = keywordQuery(keyword);
+            if (keywordQuery != null) {
+                builder.add(keywordQuery, BooleanClause.Occur.MUST);
+                hasTerm = true;
+            }
+        }
+        if (!hasTerm) {
+            return new ReportSearchHits(List.of(), 0, false);
+        }
+        if (employeeCode != null) {
+            // 一致度に影響しない絞り込み条件
+            builder.add(new TermQuery(new Term(FIELD_EMPLOYEE_CODE, employeeCode)), BooleanClause.Occur.FILTER);
+        }
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(builder.build(), limit, SORT);
+                StoredFields storedFields = searcher.storedFields();
+                List<Integer> ids = new ArrayList<Integer>(topDocs.scoreDocs.length);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    ids.add(Integer.valueOf(storedFields.document(scoreDoc.doc, Set.of(FIELD_ID)).get(FIELD_ID)));
+                }
+                return new ReportSearchHits(ids, topDocs.totalHits.value,
+                        topDocs.totalHits.relation == TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 1語分の条件(タイトルまたは内容にフレーズとして含まれる)
+    private Query keywordQuery(String keyword) {
+        Query title = queryBuilder.createPhraseQuery(FIELD_TITLE, keyword);
+        Query content = queryBuilder.createPhraseQuery(FIELD_CONTENT, keyword);
+        if (title == null || content == null) {
+            return null;
+        }
+        return new BooleanQuery.Builder().add(title, BooleanClause.Occur.SHOULD)
+                .add(content, BooleanClause.Occur.SHOULD).build();
+    }
+
+
+    // ■■ 差分更新(コミット後に反映)
+
+    // 日報の登録・更新
+    public void indexAfterCommit(ReportIndexItem item) {
+        afterCommit(() -> {
+            recordChangeDuringRebuild(item.getId(), null);
+            writer.updateDocument(idTerm(item.getId()), toDocument(item));
+            refresh();
+        });
+    }
+
+    // 日報の一括登録(検索結果への反映は最後に1回だけ行う)
+    public void indexAllAfterCommit(List<ReportIndexItem> items) {
+        afterCommit(() -> {
+            for (ReportIndexItem item : items) {
+                recordChangeDuringRebuild(item.getId(), null);
+                writer.updateDocument(idTerm(item.getId()), toDocument(item));
+            }
+            refresh();
+        });
+    }
+
+    // 日報の削除
+    public void removeAfterCommit(Integer id) {
+        afterCommit(() -> {
+            recordChangeDuringRebuild(id, null);
+            writer.deleteDocuments(idTerm(id));
+            refresh();
+        });
+    }
+
+    // 従業員の日報の一括削除
+    public void removeByEmployeeAfterCommit(String employeeCode) {
+        afterCommit(() -> {
+            recordChangeDuringRebuild(null, employeeCode);
+            writer.deleteDocuments(new Term(FIELD_EMPLOYEE_CODE, employeeCode));
+            refresh();
+        });
+    }
+
+    private void afterCommit(IndexTask task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            run(task);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                run(task);
+            }
+        });
+    }
+
+    private void run(IndexTask task) {
+        try {
+            synchronized (writeLock) {
+                task.run();
+            }
+        } catch (IOException e) {
+            // インデックスの反映に失敗しても日報の更新自体は成功しているため、ログのみ出力する(再構築で復旧する)
+            log.error("Failed to update the report search index", e);
+        }
+    }
+
+    private void recordChangeDuringRebuild(Integer id, String employeeCode) {
+        synchronized (rebuildLock) {
+            if (!rebuilding) {
+                return;
+            }
+            if (id != null) {
+                changedIdsDuringRebuild.add(id);
+            }
+            if (employeeCode != null) {
+                changedEmployeesDuringRebuild.add(employeeCode);
+            }
+        }
+    }
+
+    // 検索結果に反映する(再構築中は途中の状態を見せないため、完了時にまとめて反映する)
+    private void refresh() throws IOException {
+        synchronized (rebuildLock) {
+            if (rebuilding) {
+                return;
+            }
+        }
+        searcherManager.maybeRefresh();
+    }
+
+
+    // ■■ 再構築
+
+    // 失敗しても起動は止めない(検索は再構築されるまで結果が不完全になる)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                log.error("Failed to rebuild the report search index on startup", e);
+            }
+        }
+    }
+
+    // 日報IDの範囲をスレッド数で分割し、並列に読み出して登録する
+    // 再構築中に行われた変更は、完了後にDBから読み直して反映する
+    public long rebuild() {
+        synchronized (rebuildLock) {
+            if (rebuilding) {
+                throw new IllegalStateException("Report search index is already being rebuilt");
+            }
+            rebuilding = true;
+            changedIdsDuringRebuild = ConcurrentHashMap.newKeySet();
+            changedEmployeesDuringRebuild = ConcurrentHashMap.newKeySet();
+        }
+
+        long startedAt = System.nanoTime();
+        AtomicLong count = new AtomicLong();
+        try {
+            writer.deleteAll();
+
+            Integer maxId = reportRepository.findMaxId();
+            if (maxId != null) {
+                int threads = rebuildThreads();
+                int sliceSize = Math.max(1, (maxId + threads - 1) / threads);
+                AtomicInteger threadNumber = new AtomicInteger();
+                ExecutorService executor = Executors.newFixedThreadPool(threads,
+                        runnable -> new Thread(runnable, "report-index-rebuild-" + threadNumber.incrementAndGet()));
+                try {
+                    List<Future<?>> futures = new ArrayList<Future<?>>();
+                    for (int fromId = 1; fromId <= maxId; fromId += sliceSize) {
+                        int from = fromId;
+                        int to = Math.min(maxId, fromId + sliceSize - 1);
+                        futures.add(executor.submit(() -> readOnlyTransaction.executeWithoutResult(status -> {
+                            try (Stream<ReportIndexItem> items = reportRepository.streamIndexItemsByIdBetween(from,
+                                    to)) {
+                                items.forEach(item -> {
+                                    addDuringRebuild(item);
+                                    count.incrementAndGet();
+                                });
+                            }
+                        })));
+                    }
+                    for (Future<?> future : futures) {
+                        future.get();
+                    }
+                } finally {
+                    executor.shutdown();
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to rebuild the report search index", e);
+        } finally {
+            finishRebuild();
+        }
+
+        log.info("Rebuilt the report search index: {} reports in {} ms", count.get(),
+                (System.nanoTime() - startedAt) / 1_000_000);
+        return count.get();
+    }
+
+    // 再構築のスレッド数(DBコネクションを使い切って他の処理が待たされないよう、プールの一部に制限する)
+    private int rebuildThreads() {
+        if (rebuildThreads > 0) {
+            return Math.min(rebuildThreads, Math.max(1, connectionPoolSize / 2));
+        }
+        return Math.min(Runtime.getRuntime().availableProcessors(), Math.max(1, connectionPoolSize / 4));
+    }
+
+    private void addDuringRebuild(ReportIndexItem item) {
+        try {
+            // 再構築中の差分更新と重複しないようIDで置き換える
+            writer.updateDocument(idTerm(item.getId()), toDocument(item));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 再構築中の変更を反映し、検索結果に公開する
+    // 読み直しから反映までは差分更新を待たせ、読み直した内容で差分更新を上書きしない(待たされた差分更新は後から反映される)
+    private void finishRebuild() {
+        synchronized (writeLock) {
+            reindexChangedDuringRebuild();
+        }
+    }
+
+    private void reindexChangedDuringRebuild() {
+        Collection<Integer> changedIds;
+        Collection<String> changedEmployees;
+        synchronized (rebuildLock) {
+            rebuilding = false;
+            changedIds = changedIdsDuringRebuild;
+            changedEmployees = changedEmployeesDuringRebuild;
+        }
+        try {
+            for (Integer id : changedIds) {
+                writer.deleteDocuments(idTerm(id));
+            }
+            for (String employeeCode : changedEmployees) {
+                writer.deleteDocuments(new Term(FIELD_EMPLOYEE_CODE, employeeCode));
+            }
+            List<ReportIndexItem> items = new ArrayList<ReportIndexItem>();
+            if (!changedIds.isEmpty()) {
+                items.addAll(reportRepository.findIndexItemsByIdIn(changedIds));
+            }
+            for (String employeeCode : changedEmployees) {
+                items.addAll(reportRepository.findIndexItemsByEmployeeCode(employeeCode));
+            }
+            for (ReportIndexItem item : items) {
+                writer.updateDocument(idTerm(item.getId()), toDocument(item));
+            }
+            writer.commit();
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+
+    private static Term idTerm(Integer id) {
+        return new Term(FIELD_ID, id.toString());
+    }
+
+    private static Document toDocument(ReportIndexItem item) {
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, item.getId().toString(), Field.Store.YES));
+        document.add(new StringField(FIELD_EMPLOYEE_CODE, item.getEmployeeCode(), Field.Store.NO));
+        document.add(new NumericDocValuesField(FIELD_REPORT_DATE, item.getReportDate().toEpochDay()));
+        document.add(new TextField(FIELD_TITLE, item.getTitle(), Field.Store.NO));
+        document.add(new TextField(FIELD_CONTENT, item.getContent(), Field.Store.NO));
+        return document;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    @FunctionalInterface
+    private interface IndexTask {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,36 @@
+package com.techacademy.service;
+
+import java.util.List;
+
+import com.techacademy.repository.ReportListItem;
+
+// 日報の全文検索結果
+public class ReportSearchResult {
+
+    // 表示する日報(一致度の高い順)
+    private final List<ReportListItem> reports;
+
+    // 一致した件数
+    private final long totalHits;
+
+    // 件数が下限値であるか(「N件以上」と表示する)
+    private final boolean totalHitsLowerBound;
+
+    public ReportSearchResult(List<ReportListItem> reports, long totalHits, boolean totalHitsLowerBound) {
+        this.reports = reports;
+        this.totalHits = totalHits;
+        this.totalHitsLowerBound = totalHitsLowerBound;
+    }
+
+    public List<ReportListItem> getReports() {
+        return reports;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    public boolean isTotalHitsLowerBound() {
+        return totalHitsLowerBound;
+    }
+}
@@ -1,39 +1,134 @@
 package com.techacademy.service;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
-import javax.servlet.http.HttpServletResponse;
+import org.hibernate.exception.ConstraintViolationException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.Writer;
+import java.util.function.LongConsumer;
 
 
 
 import com.techacademy.constants.ErrorKinds;
 import com.techacademy.entity.Employee;
 import com.techacademy.entity.Report;
+import com.techacademy.repository.ReportChange;
+import com.techacademy.repository.ReportFilter;
+import com.techacademy.repository.ReportIndexItem;
+import com.techacademy.repository.ReportListItem;
 import com.techacademy.repository.ReportRepository;
+import com.techacademy.repository.UpdateStamp;
 import com.techacademy.repository.EmployeeRepository;
 
 import org.springframework.transaction.annotation.Transactional;
 
+// 公開メソッドの処理時間を report.service として計測する(タグ method でメソッドを区別)
+@Observed(name = "report.service")
 @Service
 public class ReportService {
 
+    // CSVエクスポートの書式
+    private static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.withHeader("ID", "Employee", "Report Date", "Title",
+            "Content");
+
+    // 差分エクスポートの書式(更新日時・IDは次回の取得の起点として使用する)
+    private static final CSVFormat CHANGES_CSV_FORMAT = CSVFormat.DEFAULT.withHeader("ID", "Employee Code", "Employee",
+            "Report Date", "Title", "Content", "Deleted", "Updated At");
+
+    // 差分エクスポートで起点(since)が未指定の場合は全件を対象とする
+    private static final LocalDateTime CHANGES_EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     private final ReportRepository reportRepository;
+    private final EmployeeRepository employeeRepository;
+    private final ReportSearchIndex reportSearchIndex;
+    private final ReportStatsService reportStatsService;
+    private final RenderedFragmentCache renderedFragmentCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // CSVエクスポートで出力をフラッシュする間隔(行数)
+    @Value("${reports.export.flush-interval:1000}")
+    private int exportFlushInterval;
+
+    // 日報一覧の1ページあたりの表示件数
+    @Value("${reports.list.page-size:20}")
+    private int defaultPageSize;
+
+    // 日報一覧の1ページあたりの最大表示件数
+    @Value("${reports.list.max-page-size:100}")
+    private int maxPageSize;
+
+    // 従業員削除時に日報を分割して論理削除する際の1回あたりの件数
+    @Value("${reports.delete.chunk-size:1000}")
+    private int deleteChunkSize;
+
+    // 差分エクスポートの1ページあたりの件数・最大件数
+    @Value("${reports.changes.page-size:500}")
+    private int changesPageSize;
+
+    @Value("${reports.changes.max-page-size:5000}")
+    private int changesMaxPageSize;
+
+    // 差分エクスポートでは、この時間より前に更新された日報のみを返す
+    // (更新日時はコミット前に設定されるため、直近の更新を返すと後からコミットされる更新を起点が追い越してしまう)
+    @Value("${reports.changes.settle-time:5s}")
+    private Duration changesSettleTime;
+
+    // 分割した論理削除をチャンクごとのトランザクションで実行する
+    private final TransactionTemplate chunkTransaction;
+
+    // CSVエクスポートの出力行数と、1回のエクスポートあたりの出力速度(行/秒)
+    private final Counter exportRowsCounter;
+    private final DistributionSummary exportRowsPerSecond;
 
     @Autowired
-    public ReportService(ReportRepository reportRepository, PasswordEncoder passwordEncoder) {
+    public ReportService(ReportRepository reportRepository, EmployeeRepository employeeRepository,
+            PasswordEncoder passwordEncoder, PlatformTransactionManager transactionManager,
+            ReportSearchIndex reportSearchIndex, ReportStatsService reportStatsService,
+            RenderedFragmentCache renderedFragmentCache, MeterRegistry meterRegistry) {
         this.reportRepository = reportRepository;
+        this.employeeRepository = employeeRepository;
+        this.reportSearchIndex = reportSearchIndex;
+        this.reportStatsService = reportStatsService;
+        this.renderedFragmentCache = renderedFragmentCache;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.exportRowsCounter = Counter.builder("reports.export.rows").description("CSVエクスポートの出力行数")
+                .baseUnit("rows").register(meterRegistry);
+        this.exportRowsPerSecond = DistributionSummary.builder("reports.export.throughput")
+                .description("CSVエクスポートの出力速度").baseUnit("rows/s").register(meterRegistry);
     }
 
 
@@ -68,6 +163,96 @@ public class ReportService {
     }
 
 
+    // ■■権限に応じた日報一覧を1ページ分取得するメソッド(キーセットページング)
+    // cursorDate/cursorId が未指定の場合は先頭ページ、previous が true の場合はカーソルより新しいページを取得
+    public ReportPage getReportPageForUser(UserDetail userDetail, LocalDate cursorDate, Integer cursorId,
+            boolean previous, Integer size) {
+        return getReportPageForUser(userDetail, ReportFilter.EMPTY, cursorDate, cursorId, previous, size);
+    }
+
+    // ■■権限に応じた日報一覧を絞り込み条件付きで1ページ分取得するメソッド(キーセットページング)
+    // GENERALは社員番号の条件を自分の社員番号に置き換える 条件がない場合は従来の固定のクエリを使用する
+    public ReportPage getReportPageForUser(UserDetail userDetail, ReportFilter filter, LocalDate cursorDate,
+            Integer cursorId, boolean previous, Integer size) {
+        int pageSize = resolvePageSize(size);
+        // 次ページの有無を判定するため1件多く取得する
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        boolean admin = userDetail.isAdmin();
+        String employeeCode = userDetail.getCode();
+        boolean first = cursorDate == null || cursorId == null;
+
+        List<ReportListItem> rows;
+        if (!filter.isEmpty()) {
+            rows = reportRepository.findPageByFilter(admin ? filter : filter.withEmployeeCode(employeeCode),
+                    cursorDate, cursorId, previous, pageSize + 1);
+        } else if (first) {
+            rows = admin ? reportRepository.findFirstPage(limit)
+                    : reportRepository.findFirstPageByEmployee(employeeCode, limit);
+        } else if (previous) {
+            rows = admin ? reportRepository.findPreviousPage(cursorDate, cursorId, limit)
+                    : reportRepository.findPreviousPageByEmployee(employeeCode, cursorDate, cursorId, limit);
+        } else {
+            rows = admin ? reportRepository.findNextPage(cursorDate, cursorId, limit)
+                    : reportRepository.findNextPageByEmployee(employeeCode, cursorDate, cursorId, limit);
+        }
+
+        boolean more = rows.size() > pageSize;
+        List<ReportListItem> reports = new ArrayList<ReportListItem>(more ? rows.subList(0, pageSize) : rows);
+
+        if (!first && previous) {
+            // 昇順で取得しているため表示順(降順)に戻す
+            Collections.reverse(reports);
+            return new ReportPage(reports, more, true);
+        }
+        return new ReportPage(reports, !first, more);
+    }
+
+    // ■■ 日報一覧の更新確認(条件付きGET)
+    // 権限による表示範囲の日報と、氏名を表示する従業員のそれぞれの最終更新日時・件数(日報・従業員は読み込まない)
+    public List<UpdateStamp> getReportListStamps(UserDetail userDetail) {
+        UpdateStamp reports = userDetail.isAdmin() ? reportRepository.findUpdateStamp()
+                : reportRepository.findUpdateStampByEmployeeCode(userDetail.getCode());
+        return List.of(reports, employeeRepository.findUpdateStamp());
+    }
+
+    // ■■ 日報詳細の更新確認(条件付きGET) 日報が存在しない場合はnull
+    public UpdateStamp getReportStamp(Integer id) {
+        return reportRepository.findUpdateStampById(id);
+    }
+
+    // ■■ 日報の全文検索(タイトル・内容)
+    // 権限による絞り込みは日報一覧と同じ(ADMINは全ての日報、GENERALは自分の日報のみ)
+    public ReportSearchResult searchReports(UserDetail userDetail, String keywords, Integer size) {
+        ReportSearchHits hits = reportSearchIndex.search(keywords, userDetail.isAdmin() ? null : userDetail.getCode(),
+                resolvePageSize(size));
+        if (hits.getIds().isEmpty()) {
+            return new ReportSearchResult(List.of(), hits.getTotalHits(), hits.isTotalHitsLowerBound());
+        }
+
+        // 表示項目はDBから取得し、検索結果の順に並べる
+        Map<Integer, ReportListItem> items = new HashMap<Integer, ReportListItem>();
+        for (ReportListItem item : reportRepository.findListItemsByIdIn(hits.getIds())) {
+            items.put(item.getId(), item);
+        }
+        List<ReportListItem> reports = new ArrayList<ReportListItem>(items.size());
+        for (Integer id : hits.getIds()) {
+            ReportListItem item = items.get(id);
+            if (item != null) {
+                reports.add(item);
+            }
+        }
+        return new ReportSearchResult(reports, hits.getTotalHits(), hits.isTotalHitsLowerBound());
+    }
+
+    // ■■ 表示件数の決定(未指定・範囲外の場合は設定値を使用)
+    public int resolvePageSize(Integer size) {
+        if (size == null || size < 1) {
+            return defaultPageSize;
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+
     // ■■ 日報 1件を検索 ■■
     public Report findById(Integer id) {
         // findByIdで検索
@@ -78,24 +263,39 @@ public class ReportService {
     }
 
 
+    // ■■ 日付の重複(一意制約 employee_code, report_date)による例外か
+    // 他の制約違反(外部キー等)は日付の重複として扱わない
+    public static boolean isDuplicateReportDate(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            // Hibernateが制約名を取得できた場合は制約名(MySQLでは「テーブル名.制約名」の場合がある)、できない場合はメッセージで判定する
+            String text = cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    ? violation.getConstraintName()
+                    : cause.getMessage();
+            if (text != null && text.toLowerCase().contains(Report.UNIQUE_EMPLOYEE_CODE_REPORT_DATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     // ■■ 日報保存
+    // 同じ日付の日報は一意制約(employee_code, report_date)で弾かれ、DataIntegrityViolationExceptionとなる
     @Transactional
-    public ErrorKinds save(Report report, Employee loginUser) {
-        report.setEmployee(loginUser);
-
-        Optional<Report> existingReport = reportRepository.findByEmployeeAndReportDate(report.getEmployee(),
-                report.getReportDate());
-        if (existingReport.isPresent()) {
-            // 同じ日付で既に日報が存在する場合はエラーを返す
-            return ErrorKinds.DUPLICATE_DATE_ERROR;
-        }
+    public ErrorKinds save(Report report, UserDetail loginUser) {
+        // 従業員は参照(外部キー)としてのみ使用するためSELECTせずに設定する
+        report.setEmployee(employeeRepository.getReferenceById(loginUser.getCode()));
 
         report.setDeleteFlg(false); // 論理削除フラグをfalseに設定
         LocalDateTime now = LocalDateTime.now();
         report.setCreatedAt(now);
         report.setUpdatedAt(now);
 
-        reportRepository.save(report);
+        // 一意制約違反をこのメソッド内で検出するため即時にINSERTする
+        reportRepository.saveAndFlush(report);
+        // 月別件数の集計(同じトランザクション)
+        reportStatsService.reportAdded(loginUser.getCode(), report.getReportDate());
+        // 全文検索インデックスへの登録(コミット後)
+        reportSearchIndex.indexAfterCommit(toIndexItem(report, loginUser.getCode()));
         return ErrorKinds.SUCCESS;
     }
 
@@ -143,6 +343,7 @@ public class ReportService {
 
 
     // ■■ 日報更新処理
+    // 他の日報と日付が重複する場合は一意制約で弾かれ、DataIntegrityViolationExceptionとなる
     @Transactional
     public ErrorKinds updateReport(Integer id, Report updatedReport) {
         // 日報を検索
@@ -164,13 +365,23 @@ public class ReportService {
         // employee.setPassword(updatedEmployee.getPassword());
         // }
 
+        // 月別件数の集計で使用する変更前の日付
+        LocalDate oldReportDate = report.getReportDate();
+
         // タイトル、内容、時間の更新
         report.setTitle(updatedReport.getTitle());
         report.setContent(updatedReport.getContent());
         report.setReportDate(updatedReport.getReportDate());
         report.setUpdatedAt(LocalDateTime.now());
 
-        reportRepository.save(report);
+        // 一意制約違反をこのメソッド内で検出するため即時にUPDATEする
+        reportRepository.saveAndFlush(report);
+        // 月別件数の集計(日付の月が変わった場合のみ、同じトランザクション)
+        reportStatsService.reportMoved(report.getEmployee().getCode(), oldReportDate, report.getReportDate());
+        // 全文検索インデックスの更新(コミット後)
+        reportSearchIndex.indexAfterCommit(toIndexItem(report, report.getEmployee().getCode()));
+        // 描画済みの詳細画面の破棄
+        renderedFragmentCache.evictReportDetail(id);
         return ErrorKinds.SUCCESS;
     }
 
@@ -179,15 +390,71 @@ public class ReportService {
     @Transactional
     public ErrorKinds delete(Integer id, UserDetail userDetail) {
         Report report = findById(id);
-        LocalDateTime now = LocalDateTime.now();
-        report.setUpdatedAt(now);
-        report.setDeleteFlg(true);
+        String employeeCode = report.getEmployee().getCode();
+        LocalDate reportDate = report.getReportDate();
+        // 削除済みでない場合だけ論理削除する条件付きのUPDATE
+        // 同時に削除されても集計から減らすのは実際に削除した1件だけ(削除済みの日報を二重に減らさない)
+        if (reportRepository.softDeleteById(id, LocalDateTime.now()) == 1) {
+            reportStatsService.reportRemoved(employeeCode, reportDate);
+        }
+        // 全文検索インデックスからの削除(コミット後)
+        reportSearchIndex.removeAfterCommit(id);
+        // 描画済みの詳細画面の破棄
+        renderedFragmentCache.evictReportDetail(id);
 
         return ErrorKinds.SUCCESS;
     }
 
 
 
+    // 全文検索インデックスに登録する項目
+    private static ReportIndexItem toIndexItem(Report report, String employeeCode) {
+        return new ReportIndexItem(report.getId(), employeeCode, report.getReportDate(), report.getTitle(),
+                report.getContent());
+    }
+
+
+
+    // ■■ 従業員に紐づく日報の事前の論理削除(従業員の削除の前段)
+    // 件数がチャンクサイズを超える場合のみ、チャンクサイズごとにトランザクションをコミットしながら更新し、
+    // 1トランザクションで保持するロックの範囲を抑える(件数が少ない場合は何もしない)
+    // トランザクションの外から呼び出すこと(トランザクション内で呼ばれた場合は各チャンクがそのトランザクションに含まれる)
+    // 月別件数・全文検索インデックスは deleteByEmployee でまとめて削除するため、それまでは論理削除前の件数のまま
+    public int deleteByEmployeeInChunks(String employeeCode) {
+        if (reportRepository.countByEmployeeCodeAndDeleteFlgFalse(employeeCode) <= deleteChunkSize) {
+            return 0;
+        }
+
+        int total = 0;
+        int updated;
+        do {
+            updated = chunkTransaction.execute(status -> {
+                List<Integer> ids = reportRepository.findIdsByEmployeeCodeAndDeleteFlgFalse(employeeCode,
+                        PageRequest.of(0, deleteChunkSize));
+                // 更新日時はチャンクごとに取得する(コミットが遅いチャンクの更新日時が古いと、差分エクスポートのカーソルが先に進み取得されない)
+                return ids.isEmpty() ? 0 : reportRepository.softDeleteByIdIn(ids, LocalDateTime.now());
+            });
+            total += updated;
+        } while (updated == deleteChunkSize);
+
+        return total;
+    }
+
+    // ■■ 従業員に紐づく日報を一括で論理削除(従業員の論理削除と同じトランザクションで呼び出す)
+    // 残っている日報(deleteByEmployeeInChunks の後は、その間に登録されたもののみ)を1回のUPDATEで論理削除し、
+    // 月別件数の集計と全文検索インデックス(コミット後)からも削除する
+    @Transactional
+    public int deleteByEmployee(String employeeCode) {
+        // 全文検索インデックスからの削除(コミット後)
+        reportSearchIndex.removeByEmployeeAfterCommit(employeeCode);
+        // 月別件数の集計も削除する(同じトランザクション)
+        reportStatsService.employeeReportsRemoved(employeeCode);
+
+        return reportRepository.softDeleteByEmployeeCode(employeeCode, LocalDateTime.now());
+    }
+
+
+
 //    //■■　合格時の日報の新規登録日付の重複チェック
 //    public ErrorKinds checkDuplicateReportDate(Employee employee, LocalDate reportDate) {
 //        Optional<Report> existingReport = reportRepository.findByEmployeeAndReportDate(employee, reportDate);
@@ -200,41 +467,110 @@ public class ReportService {
 
 
 
-    // ■■ 新規の日報の新規登録日付の重複チェック
-    public ErrorKinds checkDuplicateReportDate(Employee employee, LocalDate reportDate) {
-        Optional<Report> existingReport = reportRepository.findByEmployeeAndReportDate(employee, reportDate);
-        if (existingReport.isPresent()) {
-            // 既に同じ日に日報が存在する場合はエラーを返す
-            return ErrorKinds.DUPLICATE_DATE_ERROR;
-        }
-        return ErrorKinds.SUCCESS;
+//　日報のCSVエクスポート
+    // 全件をメモリに載せないよう、1件ずつ読み出して書き出す(メモリ使用量は件数に依存しない)
+    @Transactional(readOnly = true)
+    public void exportReportsToCsv(HttpServletResponse response, ReportFilter filter) throws IOException {
+        response.setContentType("text/csv");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"reports.csv\"");
+        writeReportsCsv(response.getWriter(), filter, rows -> {
+        });
     }
 
+    // ■■ 論理削除されていない日報をCSVとして書き出す(画面からのエクスポート・バックグラウンドのエクスポートで共通)
+    // 絞り込み条件がない場合はID順、ある場合は条件のインデックスの順(日付・ID順)に書き出す
+    // 一定件数ごとに出力をフラッシュし、それまでに書き出した行数を progress に通知する
+    @Transactional(readOnly = true)
+    public long writeReportsCsv(Writer writer, ReportFilter filter, LongConsumer progress) throws IOException {
+        CSVPrinter csvPrinter = new CSVPrinter(writer, CSV_FORMAT);
+
+        long startedAt = System.nanoTime();
+        long count = 0;
+        try (Stream<Report> reports = filter.isEmpty() ? reportRepository.streamByDeleteFlgFalse()
+                : reportRepository.streamByFilter(filter)) {
+            for (Iterator<Report> iterator = reports.iterator(); iterator.hasNext();) {
+                Report report = iterator.next();
+                printReport(csvPrinter, report);
+                // 書き出した日報は永続化コンテキストから切り離す
+                entityManager.detach(report);
+
+                // 一定件数ごとにクライアント(ファイル)へ書き出す
+                if (++count % exportFlushInterval == 0) {
+                    csvPrinter.flush();
+                    progress.accept(count);
+                }
+            }
+        }
+        csvPrinter.flush();
+        progress.accept(count);
 
-
-    // ■■ 日報の更新時の日付重複チェック
-    public ErrorKinds checkDuplicateReportDateForUpdate(Integer reportId, Employee employee, LocalDate reportDate) {
-        Optional<Report> existingReport = reportRepository.findByEmployeeAndReportDate(employee, reportDate);
-        if (existingReport.isPresent() && !existingReport.get().getId().equals(reportId)) {
-            // 他の日報で同じ日付が使用されている場合はエラーを返す
-            return ErrorKinds.DUPLICATE_DATE_ERROR;
+        // 出力速度(処理時間は report.service の method=exportReportsToCsv・writeReportsCsv で計測)
+        exportRowsCounter.increment(count);
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        if (seconds > 0) {
+            exportRowsPerSecond.record(count / seconds);
         }
-        return ErrorKinds.SUCCESS;
+        return count;
     }
 
-//　日報のCSVエクスポート
-    public void exportReportsToCsv(HttpServletResponse response) throws IOException {
-        List<Report> reports = findAll(); // すべての日報を取得
-        response.setContentType("text/csv");
-        response.setHeader("Content-Disposition", "attachment; filename=\"reports.csv\"");
-        CSVPrinter csvPrinter = new CSVPrinter(response.getWriter(),
-                CSVFormat.DEFAULT.withHeader("ID", "Employee", "Report Date", "Title", "Content"));
+    // ■■ 論理削除されていない日報の件数(エクスポートの進捗・残り時間の計算用)
+    public long countReports(ReportFilter filter) {
+        return filter.isEmpty() ? reportRepository.countByDeleteFlgFalse() : reportRepository.countByFilter(filter);
+    }
 
-        for (Report report : reports) {
-            csvPrinter.printRecord(report.getId(), report.getEmployee().getName(),
-                    report.getReportDate(), report.getTitle(), report.getContent());
+    // ■■ 差分エクスポート(JSON) 起点(since, cursorId)より後に更新・論理削除された日報を1ページ分取得
+    // 読み出しはインデックス(updated_at, id)の範囲のみのため、件数は表全体ではなく変更件数に比例する
+    public ReportChangePage getChanges(LocalDateTime since, Integer cursorId, Integer size) {
+        int pageSize = size == null || size < 1 ? changesPageSize : Math.min(size, changesMaxPageSize);
+        LocalDateTime until = getChangesUntil();
+        // 続きのページの有無を判定するため1件多く取得する
+        List<ReportChange> rows = reportRepository.findChangesAfter(resolveSince(since), resolveCursorId(cursorId),
+                until, PageRequest.of(0, pageSize + 1));
+        boolean more = rows.size() > pageSize;
+        return new ReportChangePage(new ArrayList<ReportChange>(more ? rows.subList(0, pageSize) : rows), more, until);
+    }
+
+    // ■■ 差分エクスポート(CSV) 起点より後、until 以前に更新・論理削除された日報をすべて書き出す
+    @Transactional(readOnly = true)
+    public long writeChangesCsv(Writer writer, LocalDateTime since, Integer cursorId, LocalDateTime until)
+            throws IOException {
+        CSVPrinter csvPrinter = new CSVPrinter(writer, CHANGES_CSV_FORMAT);
+        long count = 0;
+        try (Stream<ReportChange> changes = reportRepository.streamChangesAfter(resolveSince(since),
+                resolveCursorId(cursorId), until)) {
+            for (Iterator<ReportChange> iterator = changes.iterator(); iterator.hasNext();) {
+                ReportChange change = iterator.next();
+                csvPrinter.printRecord(change.getId(), change.getEmployeeCode(), change.getEmployeeName(),
+                        change.getReportDate(), change.getTitle(), change.getContent(), change.isDeleteFlg(),
+                        change.getUpdatedAt());
+                if (++count % exportFlushInterval == 0) {
+                    csvPrinter.flush();
+                }
+            }
         }
         csvPrinter.flush();
+        return count;
+    }
+
+    // 差分エクスポートの対象とする更新日時の上限
+    public LocalDateTime getChangesUntil() {
+        return LocalDateTime.now().minus(changesSettleTime);
+    }
+
+    private static LocalDateTime resolveSince(LocalDateTime since) {
+        return since != null ? since : CHANGES_EPOCH;
+    }
+
+    // cursorId が未指定の場合は since より後(同じ更新日時を含まない)とする
+    private static Integer resolveCursorId(Integer cursorId) {
+        return cursorId != null ? cursorId : Integer.MAX_VALUE;
+    }
+
+    // ■■ 日報1件をCSVの1行として出力
+    public void printReport(CSVPrinter csvPrinter, Report report) throws IOException {
+        csvPrinter.printRecord(report.getId(), report.getEmployee().getName(),
+                report.getReportDate(), report.getTitle(), report.getContent());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.techacademy.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.techacademy.repository.ReportMonthlyStatRepository;
+
+// 従業員別・月別の日報件数の集計
+// 件数は日報の登録・更新・削除と同じトランザクションで増減し、集計画面は集計表のみを読む
+@Service
+public class ReportStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportStatsService.class);
+
+    private final ReportMonthlyStatRepository reportMonthlyStatRepository;
+
+    // 起動時に日報テーブルから集計をやり直すか(既定はやり直さない 集計表は日報の変更と同じトランザクションで更新済み)
+    @Value("${reports.stats.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    public ReportStatsService(ReportMonthlyStatRepository reportMonthlyStatRepository) {
+        this.reportMonthlyStatRepository = reportMonthlyStatRepository;
+    }
+
+    // ■■ 日報の登録
+    @Transactional
+    public void reportAdded(String employeeCode, LocalDate reportDate) {
+        reportMonthlyStatRepository.addReportCount(employeeCode, toTargetMonth(reportDate), 1);
+    }
+
+    // ■■ 日報の一括登録(インポート) 従業員・月ごとにまとめた件数を加算する
+    @Transactional
+    public void reportsAdded(String employeeCode, int targetMonth, int count) {
+        reportMonthlyStatRepository.addReportCount(employeeCode, targetMonth, count);
+    }
+
+    // ■■ 日報の削除
+    @Transactional
+    public void reportRemoved(String employeeCode, LocalDate reportDate) {
+        reportMonthlyStatRepository.addReportCount(employeeCode, toTargetMonth(reportDate), -1);
+    }
+
+    // ■■ 日報の日付の変更(月が変わる場合のみ件数を移す)
+    @Transactional
+    public void reportMoved(String employeeCode, LocalDate oldReportDate, LocalDate newReportDate) {
+        int oldMonth = toTargetMonth(oldReportDate);
+        int newMonth = toTargetMonth(newReportDate);
+        if (oldMonth != newMonth) {
+            reportMonthlyStatRepository.addReportCount(employeeCode, oldMonth, -1);
+            reportMonthlyStatRepository.addReportCount(employeeCode, newMonth, 1);
+        }
+    }
+
+    // ■■ 従業員の日報の一括削除(全て削除されるため集計も削除する)
+    @Transactional
+    public void employeeReportsRemoved(String employeeCode) {
+        reportMonthlyStatRepository.deleteByEmployeeCode(employeeCode);
+    }
+
+    // ■■ 集計のやり直し(日報テーブルを1回集計して置き換える)
+    // 日報の登録・更新・削除による件数の増減とは排他制御していないため、日報が変更されない時間帯(メンテナンス時間)に実行する
+    // (実行中に変更された日報の件数の増減が、削除または集計のどちらにも反映されずに失われることがある)
+    @Transactional
+    public int rebuild() {
+        reportMonthlyStatRepository.deleteAllStats();
+        int rows = reportMonthlyStatRepository.insertStatsFromReports();
+        log.info("Rebuilt report monthly stats: {} rows", rows);
+        return rows;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    // ■■ 集計画面 指定月の全従業員の件数と、提出が遅れている従業員
+    @Transactional(readOnly = true)
+    public ReportMonthlySummary getMonthlySummary(YearMonth month) {
+        return new ReportMonthlySummary(month, expectedReportCount(month, LocalDate.now()),
+                reportMonthlyStatRepository.findEmployeeMonthlyCounts(toTargetMonth(month.atDay(1))));
+    }
+
+    // 指定月で本日までに提出されているべき日報の件数(月初から本日まで、または月末までの平日の日数)
+    public static int expectedReportCount(YearMonth month, LocalDate today) {
+        LocalDate end = month.atEndOfMonth().isBefore(today) ? month.atEndOfMonth() : today;
+        int count = 0;
+        for (LocalDate date = month.atDay(1); !date.isAfter(end); date = date.plusDays(1)) {
+            if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // 対象年月(yyyyMM の数値)
+    public static int toTargetMonth(LocalDate date) {
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+}
@@ -1,31 +1,64 @@
 package com.techacademy.service;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import com.techacademy.entity.Employee;
 
-public class UserDetail implements UserDetails {
-    private static final long serialVersionUID = 1L;
+// ログインユーザー情報(セッションに保存されるため、従業員エンティティは保持せず必要な項目だけを持つ)
+public class UserDetail implements UserDetails, CredentialsContainer {
+    private static final long serialVersionUID = 2L;
+
+    // 社員番号
+    private final String code;
+    // 名前
+    private final String name;
+    // 権限
+    private final Employee.Role role;
+    // ログイン時点の従業員の更新日時(版)
+    private final LocalDateTime version;
+    // パスワード(認証後に消去する)
+    private String password;
 
-    private final Employee employee;
     private final List<SimpleGrantedAuthority> authorities;
 
     public UserDetail(Employee employee) {
-        this.employee = employee;
+        this.code = employee.getCode();
+        this.name = employee.getName();
+        this.role = employee.getRole();
+        this.version = employee.getUpdatedAt();
+        this.password = employee.getPassword();
 
         List<SimpleGrantedAuthority> authorities = new ArrayList<SimpleGrantedAuthority>();
         authorities.add(new SimpleGrantedAuthority(employee.getRole().toString()));
         this.authorities = authorities;
     }
 
-    public Employee getEmployee() {
-        return employee;
+    public String getCode() {
+        return code;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Employee.Role getRole() {
+        return role;
+    }
+
+    public LocalDateTime getVersion() {
+        return version;
+    }
+
+    public boolean isAdmin() {
+        return role == Employee.Role.ADMIN;
     }
 
     @Override
@@ -35,12 +68,18 @@ public class UserDetail implements UserDetails {
 
     @Override
     public String getPassword() {
-        return employee.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return employee.getCode();
+        return code;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        // 認証後はパスワードのハッシュをセッションに残さない
+        this.password = null;
     }
 
     @Override
@@ -66,4 +105,4 @@ public class UserDetail implements UserDetails {
         // 従業員が有効であればtrueを返す
         return true;
     }
-}
\ No newline at end of file
+}
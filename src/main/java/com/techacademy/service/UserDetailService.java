@@ -1,32 +1,46 @@
 package com.techacademy.service;
 
-import java.util.Optional;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.observation.annotation.Observed;
+
 import com.techacademy.entity.Employee;
-import com.techacademy.repository.EmployeeRepository;
 
 @Service
-public class UserDetailService implements UserDetailsService {
-    private final EmployeeRepository employeeRepository;
+public class UserDetailService implements UserDetailsService, UserDetailsPasswordService {
+    private final EmployeeService employeeService;
 
     @Autowired
-    public UserDetailService(EmployeeRepository repository) {
-        this.employeeRepository = repository;
+    public UserDetailService(EmployeeService employeeService) {
+        this.employeeService = employeeService;
     }
 
+    // ログイン時の従業員取得の処理時間(パスワードの照合は password.encoder.* で計測)
     @Override
+    @Observed(name = "user.detail.service.load")
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Optional<Employee> employee = employeeRepository.findById(username);
+        // 従業員はキャッシュから取得する
+        Employee employee = employeeService.findByCode(username);
 
-        if (employee.isEmpty()) {
+        if (employee == null) {
             throw new UsernameNotFoundException("Exception:Username Not Found");
         }
-        return new UserDetail(employee.get());
+        return new UserDetail(employee);
+    }
+
+    // ログイン成功時、保存されているハッシュが古い形式・強度の場合に再ハッシュしたパスワードを保存する
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Employee employee = employeeService.updateEncodedPassword(user.getUsername(), newPassword);
+
+        if (employee == null) {
+            return user;
+        }
+        return new UserDetail(employee);
     }
-}
\ No newline at end of file
+}
@@ -2,9 +2,16 @@ INSERT INTO daily_report_system.employees(code,name,role,password,delete_flg,cre
      VALUES ("1","煌木　太郎","ADMIN","$2a$10$vY93/U2cXCfEMBESYnDJUevcjJ208sXav23S.K8elE/J6Sxr4w5jO",0,CURRENT_TIMESTAMP,CURRENT_TIMESTAMP);
 INSERT INTO daily_report_system.employees(code,name,role,password,delete_flg,created_at,updated_at)
      VALUES ("2","田中　太郎","GENERAL","$2a$10$HPIjRCymeRZKEIq.71TDduiEotOlb8Ai6KQUHCs4lGNYlLhcKv4Wi",0,CURRENT_TIMESTAMP,CURRENT_TIMESTAMP);
-INSERT INTO daily_report_system.reports(report_date,title,content,employee_code,delete_flg,created_at,updated_at)
-     VALUES (CURRENT_TIMESTAMP,"煌木　太郎の記載、タイトル","煌木　太郎の記載、内容",1,0,CURRENT_TIMESTAMP,CURRENT_TIMESTAMP);
-INSERT INTO daily_report_system.reports(report_date,title,content,employee_code,delete_flg,created_at,updated_at)
-     VALUES (CURRENT_TIMESTAMP,"田中　太郎の記載、タイトル","田中　太郎の記載、内容",2,0,CURRENT_TIMESTAMP,CURRENT_TIMESTAMP);
-INSERT INTO daily_report_system.reports(report_date,title,content,employee_code,delete_flg,created_at,updated_at)
-     VALUES (CURRENT_TIMESTAMP,"田中　太郎の記載、タタタタタタ","田中　太郎の記載、タタタタタタ",2,0,CURRENT_TIMESTAMP,CURRENT_TIMESTAMP);
\ No newline at end of file
+INSERT INTO daily_report_system.reports(id,report_date,title,content,employee_code,delete_flg,created_at,updated_at)
+     VALUES (1,CURRENT_TIMESTAMP,"煌木　太郎の記載、タイトル","煌木　太郎の記載、内容",1,0,CURRENT_TIMESTAMP,CURRENT_TIMESTAMP);
+INSERT INTO daily_report_system.reports(id,report_date,title,content,employee_code,delete_flg,created_at,updated_at)
+     VALUES (2,CURRENT_TIMESTAMP,"田中　太郎の記載、タイトル","田中　太郎の記載、内容",2,0,CURRENT_TIMESTAMP,CURRENT_TIMESTAMP);
+INSERT INTO daily_report_system.reports(id,report_date,title,content,employee_code,delete_flg,created_at,updated_at)
+     VALUES (3,DATE_SUB(CURRENT_DATE, INTERVAL 1 DAY),"田中　太郎の記載、タタタタタタ","田中　太郎の記載、タタタタタタ",2,0,CURRENT_TIMESTAMP,CURRENT_TIMESTAMP);
+-- 月別件数の集計表(登録済みの日報から集計する)
+INSERT INTO daily_report_system.report_monthly_stats(employee_code,target_month,report_count,updated_at)
+     SELECT employee_code,YEAR(report_date) * 100 + MONTH(report_date),COUNT(*),CURRENT_TIMESTAMP
+       FROM daily_report_system.reports WHERE delete_flg = 0
+      GROUP BY employee_code,YEAR(report_date) * 100 + MONTH(report_date);
+-- 日報IDはシーケンス(50件ずつ採番)のため、登録済みのIDと重ならない値から開始する
+UPDATE daily_report_system.reports_seq SET next_val = 101;
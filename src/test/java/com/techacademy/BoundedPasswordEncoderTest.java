@@ -0,0 +1,117 @@
+package com.techacademy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BoundedPasswordEncoderTest {
+
+    // 処理を止めておけるPasswordEncoder
+    private static class BlockingPasswordEncoder implements PasswordEncoder {
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "encoded:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+
+    // 専用スレッドプールで実行した結果が返る
+    @Test
+    void testEncode() {
+        PasswordEncoder passthrough = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return "encoded:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(passthrough, 1, 1, 1000, new SimpleMeterRegistry());
+
+        assertEquals(encoder.encode("password"), "encoded:password");
+        assertTrue(encoder.matches("password", "encoded:password"));
+        encoder.destroy();
+    }
+
+    // 待ち行列が一杯の場合は待たずに例外となる
+    @Test
+    void testQueueFull() throws Exception {
+        BlockingPasswordEncoder blocking = new BlockingPasswordEncoder();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, 1, 1, 10000, meterRegistry);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        // 実行中1件・待ち1件で埋める
+        callers.submit(() -> encoder.encode("first"));
+        callers.submit(() -> encoder.encode("second"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("password.encoder.queue.size").gauge().value() < 1
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThrows(PasswordEncoderBusyException.class, () -> encoder.encode("third"));
+        assertEquals(meterRegistry.get("password.encoder.rejected").counter().count(), 1.0);
+
+        blocking.release.countDown();
+        callers.shutdown();
+        callers.awaitTermination(5, TimeUnit.SECONDS);
+        encoder.destroy();
+    }
+
+    // 待ち時間の上限を過ぎた未実行の処理は待ち行列から取り除かれる(実行中の処理は完了まで続く)
+    @Test
+    void testTimeoutRemovesQueuedTask() throws Exception {
+        BlockingPasswordEncoder blocking = new BlockingPasswordEncoder();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, 1, 1, 200, meterRegistry);
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+
+        // 実行中の1件(結果は待たない)
+        callers.submit(() -> encoder.encode("first"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("password.encoder.active").gauge().value() < 1
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // 待ち行列に入った処理は時間切れで取り除かれ、次の処理が待ち行列に入れる
+        // (取り除かれない場合、3件目は待ち行列が一杯で受け付けられない)
+        PasswordEncoderBusyException second = assertThrows(PasswordEncoderBusyException.class,
+                () -> encoder.encode("second"));
+        assertEquals(second.getMessage(), "Password encoder timed out");
+        assertEquals(meterRegistry.get("password.encoder.queue.size").gauge().value(), 0.0);
+        PasswordEncoderBusyException third = assertThrows(PasswordEncoderBusyException.class,
+                () -> encoder.encode("third"));
+        assertEquals(third.getMessage(), "Password encoder timed out");
+        assertEquals(meterRegistry.get("password.encoder.queue.size").gauge().value(), 0.0);
+
+        blocking.release.countDown();
+        callers.shutdown();
+        callers.awaitTermination(5, TimeUnit.SECONDS);
+        encoder.destroy();
+    }
+
+}
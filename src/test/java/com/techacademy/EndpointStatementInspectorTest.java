@@ -0,0 +1,54 @@
+package com.techacademy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EndpointStatementInspectorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final EndpointStatementInspector inspector = new EndpointStatementInspector(registry);
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    // SQLは変更せず、種類ごとに数える(リクエスト外は endpoint=none)
+    @Test
+    void testCountByType() {
+        String sql = "  select r1_0.id from reports r1_0";
+        assertSame(inspector.inspect(sql), sql);
+        inspector.inspect("insert into reports (id) values (?)");
+        inspector.inspect("INSERT INTO report_monthly_stats (employee_code) VALUES (?)");
+        inspector.inspect("with t as (select 1) select * from t");
+
+        assertEquals(count(EndpointTags.NONE, "select"), 1.0);
+        assertEquals(count(EndpointTags.NONE, "insert"), 2.0);
+        assertEquals(count(EndpointTags.NONE, "other"), 1.0);
+    }
+
+    // リクエスト中はURLパターンをエンドポイントとする
+    @Test
+    void testCountByEndpoint() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/reports/1/");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/reports/{id}/");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        inspector.inspect("select r1_0.id from reports r1_0 where r1_0.id=?");
+
+        assertEquals(count("/reports/{id}/", "select"), 1.0);
+    }
+
+    private double count(String endpoint, String type) {
+        return registry.get("hibernate.statements").tag(EndpointTags.TAG_NAME, endpoint).tag("type", type).counter()
+                .count();
+    }
+}
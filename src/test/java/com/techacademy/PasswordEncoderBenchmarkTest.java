@@ -0,0 +1,65 @@
+package com.techacademy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// BCryptの強度ごとのログイン処理時間の計測
+// アプリケーションと同じ構成のPasswordEncoder(SecurityConfig#passwordEncoder:専用スレッドプール + {bcrypt}接頭辞)を強度ごとに作成して計測する
+// 実行方法: mvn test -Dtest=PasswordEncoderBenchmarkTest -Dbenchmark=true
+// (-Dbenchmark.iterations=回数 で計測回数を変更できる 結果はログに出力する)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PasswordEncoderBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordEncoderBenchmarkTest.class);
+
+    private static final String PASSWORD = "password1";
+
+    @Test
+    void benchmarkLoginLatencyByStrength() throws Exception {
+        int iterations = Integer.getInteger("benchmark.iterations", 10);
+
+        log.info("strength, average login latency (ms), max (ms)");
+        for (int strength = 8; strength <= 14; strength++) {
+            // application.properties の既定値(プールサイズ:CPUコア数の半分・待ち行列64件・待ち時間5秒)
+            PasswordEncoder encoder = new SecurityConfig().passwordEncoder(new SimpleMeterRegistry(), strength, 0, 64,
+                    5000);
+            try {
+                DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+                provider.setPasswordEncoder(encoder);
+                provider.setUserDetailsService(new InMemoryUserDetailsManager(
+                        User.withUsername("1").password(encoder.encode(PASSWORD)).authorities("ADMIN").build()));
+
+                // ウォームアップ
+                provider.authenticate(new UsernamePasswordAuthenticationToken("1", PASSWORD));
+
+                long total = 0;
+                long max = 0;
+                for (int i = 0; i < iterations; i++) {
+                    long start = System.nanoTime();
+                    provider.authenticate(new UsernamePasswordAuthenticationToken("1", PASSWORD));
+                    long elapsed = System.nanoTime() - start;
+                    total += elapsed;
+                    max = Math.max(max, elapsed);
+                }
+
+                log.info(String.format("%d, %.1f, %.1f", strength,
+                        (double) TimeUnit.NANOSECONDS.toMicros(total / iterations) / 1000,
+                        (double) TimeUnit.NANOSECONDS.toMicros(max) / 1000));
+            } finally {
+                ((BoundedPasswordEncoder) encoder).destroy();
+            }
+        }
+    }
+
+}
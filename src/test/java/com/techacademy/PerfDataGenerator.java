@@ -0,0 +1,216 @@
+package com.techacademy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.techacademy.entity.Employee;
+import com.techacademy.entity.Report;
+import com.techacademy.repository.EmployeeRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// 性能試験用の試験データ作成(perfプロファイルのみ テスト用のクラスパスにのみ含まれる)
+// 従業員N人と、その日報M件を数年分に分散して登録する 乱数の種を固定しているため、同じ設定であれば毎回同じデータとなる
+// ApplicationRunnerは起動完了(ApplicationReadyEvent)より前に実行されるため、月別件数の集計と全文検索インデックスは
+// 起動時の再構築(reports.stats.rebuild-on-startup / reports.search.rebuild-on-startup)で作成される
+@Profile("perf")
+@Component
+public class PerfDataGenerator implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PerfDataGenerator.class);
+
+    private static final String[] LAST_NAMES = { "佐藤", "鈴木", "高橋", "田中", "伊藤", "渡辺", "山本", "中村", "小林", "加藤",
+            "吉田", "山田", "佐々木", "山口", "松本", "井上", "木村", "林", "斎藤", "清水" };
+    private static final String[] FIRST_NAMES = { "太郎", "花子", "一郎", "次郎", "三郎", "陽子", "健太", "美咲", "大輔", "愛",
+            "翔太", "由美", "直樹", "恵", "拓也", "彩", "誠", "舞", "亮", "結衣" };
+    private static final String[] SUBJECTS = { "顧客訪問", "社内会議", "資料作成", "システム設計", "テスト", "障害対応", "見積作成",
+            "打ち合わせ", "研修", "レビュー", "データ移行", "問い合わせ対応" };
+    private static final String[] SENTENCES = { "本日は予定どおり作業を進めた。", "午前中は関係者と進め方を確認した。",
+            "午後は残作業の洗い出しを行った。", "課題が見つかったため、明日の朝に共有する。", "先方からの回答待ちのため、並行して別の作業を進めた。",
+            "進捗は計画に対して概ね予定どおり。", "手順書を更新し、チーム内でレビューを依頼した。", "来週の作業計画を立て、上長に報告した。",
+            "想定より時間がかかったため、明日以降で調整する。", "特に問題なし。" };
+
+    // 内容の文字数の上限(Report#content の入力チェックと同じ)
+    private static final int MAX_CONTENT_LENGTH = 600;
+
+    private final EmployeeRepository employeeRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate batchTransaction;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${perf.data.employees:1000}")
+    private int employees;
+
+    @Value("${perf.data.reports:100000}")
+    private int reports;
+
+    @Value("${perf.data.years:5}")
+    private int years;
+
+    @Value("${perf.data.end-date:2024-12-31}")
+    private String endDate;
+
+    @Value("${perf.data.admin-interval:10}")
+    private int adminInterval;
+
+    @Value("${perf.data.password:password}")
+    private String password;
+
+    @Value("${perf.data.seed:20240101}")
+    private long seed;
+
+    @Value("${perf.data.batch-size:1000}")
+    private int batchSize;
+
+    public PerfDataGenerator(EmployeeRepository employeeRepository, PasswordEncoder passwordEncoder,
+            PlatformTransactionManager transactionManager) {
+        this.employeeRepository = employeeRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (employeeRepository.count() > 0) {
+            log.info("Skipped generating perf data: employees already exist");
+            return;
+        }
+        long startedAt = System.nanoTime();
+        Random random = new Random(seed);
+
+        // BCryptは重いため、全従業員で同じハッシュを使用する
+        String encodedPassword = passwordEncoder.encode(password);
+        LocalDate lastDate = LocalDate.parse(endDate);
+        LocalDate startDate = lastDate.minusYears(years).plusDays(1);
+        int days = (int) ChronoUnit.DAYS.between(startDate, lastDate) + 1;
+
+        List<Employee> employeeBatch = new ArrayList<Employee>(batchSize);
+        List<Report> reportBatch = new ArrayList<Report>(batchSize);
+        List<String> reportEmployeeCodes = new ArrayList<String>(batchSize);
+        int reportCount = 0;
+        for (int i = 1; i <= employees; i++) {
+            String code = String.valueOf(i);
+            employeeBatch.add(newEmployee(code, i, encodedPassword, startDate, random));
+            if (employeeBatch.size() >= batchSize) {
+                persistEmployees(employeeBatch);
+            }
+
+            // 日報は従業員ごとに均等に割り当て、同じ日付が重ならないよう期間を等分した区間ごとに1件とする
+            int count = Math.min(reports / employees + (i <= reports % employees ? 1 : 0), days);
+            for (int j = 0; j < count; j++) {
+                long from = (long) j * days / count;
+                long to = (long) (j + 1) * days / count;
+                LocalDate reportDate = startDate.plusDays(from + random.nextInt((int) (to - from)));
+                reportBatch.add(newReport(reportDate, random));
+                reportEmployeeCodes.add(code);
+                if (reportBatch.size() >= batchSize) {
+                    // 日報の外部キーより先に従業員を登録する
+                    persistEmployees(employeeBatch);
+                    reportCount += reportBatch.size();
+                    persistReports(reportBatch, reportEmployeeCodes);
+                }
+            }
+        }
+        persistEmployees(employeeBatch);
+        reportCount += reportBatch.size();
+        persistReports(reportBatch, reportEmployeeCodes);
+
+        log.info("Generated perf data: {} employees, {} reports ({} - {}) in {} ms", employees, reportCount,
+                startDate, lastDate, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    // 従業員の1バッチ分をJDBCバッチでINSERTし、永続化コンテキストから切り離す
+    private void persistEmployees(List<Employee> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        batchTransaction.executeWithoutResult(status -> {
+            entities.forEach(entityManager::persist);
+            entityManager.flush();
+            entityManager.clear();
+        });
+        entities.clear();
+    }
+
+    // 日報の1バッチ分の登録 従業員は参照(外部キー)としてのみ使用するためSELECTしない
+    private void persistReports(List<Report> reportBatch, List<String> employeeCodes) {
+        batchTransaction.executeWithoutResult(status -> {
+            for (int i = 0; i < reportBatch.size(); i++) {
+                Report report = reportBatch.get(i);
+                report.setEmployee(entityManager.getReference(Employee.class, employeeCodes.get(i)));
+                entityManager.persist(report);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+        reportBatch.clear();
+        employeeCodes.clear();
+    }
+
+    private Employee newEmployee(String code, int number, String encodedPassword, LocalDate startDate,
+            Random random) {
+        LocalDateTime createdAt = startDate.atTime(LocalTime.of(9, 0)).plusMinutes(random.nextInt(60));
+
+        Employee employee = new Employee();
+        employee.setCode(code);
+        employee.setName(LAST_NAMES[random.nextInt(LAST_NAMES.length)] + "　"
+                + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+        employee.setRole((number - 1) % adminInterval == 0 ? Employee.Role.ADMIN : Employee.Role.GENERAL);
+        employee.setPassword(encodedPassword);
+        employee.setDeleteFlg(false);
+        employee.setCreatedAt(createdAt);
+        employee.setUpdatedAt(createdAt);
+        return employee;
+    }
+
+    private Report newReport(LocalDate reportDate, Random random) {
+        // 当日の夕方に登録し、一部は翌日以降に更新されたものとする
+        LocalDateTime createdAt = reportDate.atTime(LocalTime.of(17, 0)).plusMinutes(random.nextInt(180));
+        LocalDateTime updatedAt = random.nextInt(10) == 0 ? createdAt.plusDays(1 + random.nextInt(7)) : createdAt;
+
+        Report report = new Report();
+        report.setReportDate(reportDate);
+        report.setTitle(reportDate + " " + SUBJECTS[random.nextInt(SUBJECTS.length)]);
+        report.setContent(newContent(random));
+        report.setDeleteFlg(false);
+        report.setCreatedAt(createdAt);
+        report.setUpdatedAt(updatedAt);
+        return report;
+    }
+
+    // 1～20文の内容(600文字以内)
+    private static String newContent(Random random) {
+        StringBuilder content = new StringBuilder();
+        int sentences = 1 + random.nextInt(20);
+        for (int i = 0; i < sentences; i++) {
+            String sentence = SENTENCES[random.nextInt(SENTENCES.length)];
+            if (content.length() + sentence.length() + 1 > MAX_CONTENT_LENGTH) {
+                break;
+            }
+            if (i > 0 && random.nextInt(3) == 0) {
+                content.append('\n');
+            }
+            content.append(sentence);
+        }
+        return content.toString();
+    }
+}
@@ -0,0 +1,29 @@
+package com.techacademy;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+// テスト用: DataSourceをプロキシで包み、実行されたSQL文を SqlStatementRecorder で記録する
+// 使用するテストクラスで @Import(QueryCountConfiguration.class) とする
+@TestConfiguration(proxyBeanMethods = false)
+public class QueryCountConfiguration {
+
+    @Bean
+    static BeanPostProcessor queryCountDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource).name(beanName)
+                            .listener(new SqlStatementRecorder()).build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package com.techacademy;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.function.Executable;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+// テスト用: 実行されたSQL文を記録し、件数が上限以内であることを検証する(N+1の検出用)
+// DataSourceへの組み込みは QueryCountConfiguration で行う
+// 記録は呼び出したスレッドのみ(MockMvcのリクエストは同じスレッドで処理される)
+public class SqlStatementRecorder implements QueryExecutionListener {
+
+    private static final ThreadLocal<List<RecordedStatement>> STATEMENTS = new ThreadLocal<List<RecordedStatement>>();
+
+    // 処理中に実行されたSQL文が budget 件以内であることを検証する
+    // JDBCバッチは1回の送信を1件と数える(件数に比例して増えないため)
+    public static void assertStatementsAtMost(int budget, Executable executable) throws Throwable {
+        List<RecordedStatement> statements = recordStatements(executable);
+        if (statements.size() > budget) {
+            List<String> sqls = new ArrayList<String>();
+            for (RecordedStatement statement : statements) {
+                sqls.add(statement.toString());
+            }
+            fail("Expected at most " + budget + " SQL statements but " + statements.size() + " were executed:\n  "
+                    + String.join("\n  ", sqls));
+        }
+    }
+
+    // 処理中に実行されたSQL文とパラメータを返す(実行計画の確認用)
+    public static List<RecordedStatement> recordStatements(Executable executable) throws Throwable {
+        List<RecordedStatement> statements = new ArrayList<RecordedStatement>();
+        STATEMENTS.set(statements);
+        try {
+            executable.execute();
+        } finally {
+            STATEMENTS.remove();
+        }
+        return statements;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        List<RecordedStatement> statements = STATEMENTS.get();
+        if (statements == null) {
+            return;
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            statements.add(new RecordedStatement(queryInfo.getQuery(),
+                    execInfo.isBatch() || queryInfo.getParametersList().isEmpty() ? List.of()
+                            : parameters(queryInfo.getParametersList().get(0)),
+                    execInfo.isBatch() ? queryInfo.getParametersList().size() : 0));
+        }
+    }
+
+    // パラメータの値を位置の順に並べる(setNull は null とする)
+    private static List<Object> parameters(List<ParameterSetOperation> operations) {
+        List<ParameterSetOperation> sorted = new ArrayList<ParameterSetOperation>(operations);
+        sorted.sort(Comparator.comparingInt(operation -> ((Number) operation.getArgs()[0]).intValue()));
+        List<Object> values = new ArrayList<Object>();
+        for (ParameterSetOperation operation : sorted) {
+            values.add("setNull".equals(operation.getMethod().getName()) ? null : operation.getArgs()[1]);
+        }
+        return values;
+    }
+
+    // 実行されたSQL文1件分(JDBCバッチの場合はパラメータを記録せず、件数のみ)
+    public static class RecordedStatement {
+
+        private final String sql;
+        private final List<Object> parameters;
+        private final int batchSize;
+
+        RecordedStatement(String sql, List<Object> parameters, int batchSize) {
+            this.sql = sql;
+            this.parameters = parameters;
+            this.batchSize = batchSize;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public List<Object> getParameters() {
+            return parameters;
+        }
+
+        @Override
+        public String toString() {
+            return batchSize > 0 ? sql + " (batch of " + batchSize + ")" : sql;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.techacademy.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.techacademy.entity.Employee;
+import com.techacademy.entity.Report;
+import com.techacademy.service.ReportService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// CSVエクスポートの1行分の書式化(exportReportsToCsv から1件ごとに呼ばれる printReport)
+// 出力先は破棄するため、DB・ネットワークを含まない書式化のみの費用となる
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvRowBenchmark {
+
+    // 内容の文字数(上限は600文字) 改行・カンマを含む場合は引用符で囲まれる
+    @Param({ "50", "600" })
+    public int contentLength;
+
+    private ReportService service;
+    private CSVPrinter printer;
+    private Report report;
+
+    @Setup
+    public void setUp() throws IOException {
+        // printReport はリポジトリ等を使用しない
+        service = new ReportService(null, null, null, null, null, null, null, new SimpleMeterRegistry());
+        printer = new CSVPrinter(Writer.nullWriter(), CSVFormat.DEFAULT);
+
+        Employee employee = new Employee();
+        employee.setCode("1");
+        employee.setName("煌木　太郎");
+
+        report = new Report();
+        report.setId(12345);
+        report.setEmployee(employee);
+        report.setReportDate(LocalDate.of(2024, 1, 1));
+        report.setTitle("煌木　太郎の記載、タイトル");
+        report.setContent("本日の作業内容、\n".repeat(contentLength / 9 + 1).substring(0, contentLength));
+    }
+
+    @Benchmark
+    public void printReport() throws IOException {
+        service.printReport(printer, report);
+    }
+}
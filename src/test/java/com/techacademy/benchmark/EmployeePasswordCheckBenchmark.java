@@ -0,0 +1,84 @@
+package com.techacademy.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.techacademy.constants.ErrorKinds;
+import com.techacademy.entity.Employee;
+import com.techacademy.repository.EmployeeRepository;
+import com.techacademy.service.EmployeeService;
+
+// 従業員パスワードチェック(形式チェック・ハッシュ化)
+// encoder=noop は形式チェックのみの費用、bcrypt4 は最小強度のBCryptを含む費用
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeePasswordCheckBenchmark {
+
+    // 変更前の実装(呼び出しごとにPatternをコンパイルする)との比較用
+    private static final String HALF_SIZE_REGEX = "^[A-Za-z0-9]+$";
+
+    @Param({ "noop", "bcrypt4" })
+    public String encoder;
+
+    @Param({ "password1234", "パスワード" })
+    public String password;
+
+    private EmployeeService service;
+    private Employee employee;
+
+    @SuppressWarnings("deprecation")
+    @Setup
+    public void setUp() {
+        PasswordEncoder passwordEncoder = "noop".equals(encoder) ? NoOpPasswordEncoder.getInstance()
+                : new BCryptPasswordEncoder(4);
+        // リポジトリ・トランザクション・キャッシュは使用しない
+        service = new EmployeeService(null, passwordEncoder, null,
+                new ConcurrentMapCacheManager(EmployeeRepository.CACHE_NAME));
+        employee = newEmployee(password);
+    }
+
+    @Benchmark
+    public ErrorKinds employeePasswordCheck() {
+        // ハッシュ化したパスワードで上書きされるため毎回作成する
+        return service.employeePasswordCheck(newEmployee(password));
+    }
+
+    @Benchmark
+    public boolean isHalfSizeCheckError() {
+        return service.isHalfSizeCheckError(employee);
+    }
+
+    @Benchmark
+    public boolean isHalfSizeCheckErrorCompilingPattern() {
+        return !Pattern.compile(HALF_SIZE_REGEX).matcher(employee.getPassword()).matches();
+    }
+
+    private static Employee newEmployee(String password) {
+        Employee employee = new Employee();
+        employee.setCode("1");
+        employee.setName("煌木　太郎");
+        employee.setRole(Employee.Role.GENERAL);
+        employee.setPassword(password);
+        return employee;
+    }
+}
@@ -0,0 +1,46 @@
+package com.techacademy.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.techacademy.constants.ErrorKinds;
+import com.techacademy.constants.ErrorMessage;
+
+// エラーメッセージの取得(画面表示ごとに呼ばれる)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorMessageBenchmark {
+
+    // 登録されているエラーと、登録されていない結果(SUCCESS)
+    @Param({ "DUPLICATE_DATE_ERROR", "SUCCESS" })
+    public ErrorKinds kind;
+
+    @Benchmark
+    public String getErrorValue() {
+        return ErrorMessage.getErrorValue(kind);
+    }
+
+    @Benchmark
+    public String getErrorName() {
+        return ErrorMessage.getErrorName(kind);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return ErrorMessage.contains(kind);
+    }
+}
@@ -0,0 +1,45 @@
+package com.techacademy.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.techacademy.entity.Employee;
+import com.techacademy.service.UserDetail;
+
+// ログインユーザー情報の作成(ログインごとに呼ばれる)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserDetailBenchmark {
+
+    private Employee employee;
+
+    @Setup
+    public void setUp() {
+        employee = new Employee();
+        employee.setCode("1");
+        employee.setName("煌木　太郎");
+        employee.setRole(Employee.Role.ADMIN);
+        employee.setPassword("{bcrypt}$2a$10$vY93/U2cXCfEMBESYnDJUevcjJ208sXav23S.K8elE/J6Sxr4w5jO");
+        employee.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 9, 0));
+    }
+
+    @Benchmark
+    public UserDetail newUserDetail() {
+        return new UserDetail(employee);
+    }
+}
@@ -345,4 +345,46 @@ class EmployeeControllerTest {
 
     }
 
+    // ログイン後に権限が変更された従業員(更新日時が古いログインユーザー情報)
+    @Test
+    void testStalePrincipalRefreshed() throws Exception {
+
+        Employee employee = new Employee();
+        employee.setCode("2");
+        employee.setName("田中　太郎");
+        employee.setCreatedAt(LocalDateTime.of(2000, 1, 1, 0, 0));
+        employee.setUpdatedAt(LocalDateTime.of(2000, 1, 1, 0, 0));
+        employee.setDeleteFlg(false);
+        employee.setPassword("");
+        employee.setRole(Role.ADMIN);
+
+        UserDetail userDetail = new UserDetail(employee);
+
+        // 現在の権限(一般)で作り直されるため、管理者向けの画面は表示できない
+        mockMvc.perform(get("/employees").with(user(userDetail)))
+                .andExpect(status().isForbidden());
+    }
+
+    // ログイン後に削除された従業員
+    @Test
+    void testDeletedPrincipalLoggedOut() throws Exception {
+
+        Employee employee = new Employee();
+        employee.setCode("X99");
+        employee.setName("削除　太郎");
+        LocalDateTime now = LocalDateTime.now();
+        employee.setCreatedAt(now);
+        employee.setUpdatedAt(now);
+        employee.setDeleteFlg(false);
+        employee.setPassword("");
+        employee.setRole(Role.ADMIN);
+
+        UserDetail userDetail = new UserDetail(employee);
+
+        // ログアウトされ、ログイン画面へリダイレクトされる
+        mockMvc.perform(get("/reports").with(user(userDetail)))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("http://localhost/login"));
+    }
+
 }
@@ -0,0 +1,327 @@
+package com.techacademy.controller;
+
+import static com.techacademy.SqlStatementRecorder.assertStatementsAtMost;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.techacademy.QueryCountConfiguration;
+import com.techacademy.entity.Employee;
+import com.techacademy.entity.Employee.Role;
+import com.techacademy.entity.Report;
+import com.techacademy.service.EmployeeService;
+import com.techacademy.service.UserDetail;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// 画面ごとのSQL文の件数の上限(N+1の検出)
+// 従業員30人・日報150件を追加した状態で各画面を実行し、件数が上限を超えた場合は失敗とする
+// 上限は件数に比例しない値のため、1件ずつの遅延読み込みなどが加わると失敗する
+// 登録・更新は永続化コンテキストのflushまでを数える(テスト後にロールバック)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ExtendWith(SpringExtension.class)
+@Import(QueryCountConfiguration.class)
+@Transactional
+class QueryCountGuardTest {
+
+    // 追加する従業員の人数と、1人あたりの日報の件数
+    private static final int EMPLOYEES = 30;
+    private static final int REPORTS_PER_EMPLOYEE = 5;
+
+    private MockMvc mockMvc;
+
+    private final WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // ログインユーザー(ADMIN)
+    private UserDetail admin;
+
+    // 追加した日報の1件
+    private Report report;
+
+    QueryCountGuardTest(WebApplicationContext context) {
+        this.webApplicationContext = context;
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        // Spring Securityを有効にする
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity()).build();
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 1; i <= EMPLOYEES; i++) {
+            Employee employee = newEmployee(String.format("Q%02d", i), Role.GENERAL, now);
+            entityManager.persist(employee);
+            for (int j = 0; j < REPORTS_PER_EMPLOYEE; j++) {
+                Report added = new Report();
+                added.setEmployee(employee);
+                added.setReportDate(LocalDate.of(2020, 1, 1).plusDays(j));
+                added.setTitle("件数確認" + i + "-" + j);
+                added.setContent("件数確認の内容");
+                added.setDeleteFlg(false);
+                added.setCreatedAt(now);
+                added.setUpdatedAt(now);
+                entityManager.persist(added);
+                report = added;
+            }
+        }
+        // 追加したデータを永続化コンテキスト・キャッシュから外し、画面の処理でDBから読み込ませる
+        entityManager.flush();
+        entityManager.clear();
+        cacheManager.getCache("employees").clear();
+
+        // ログイン中の従業員はログイン時にキャッシュ済み(ログインユーザー情報の確認はSQLを実行しない)
+        admin = new UserDetail(employeeService.findByCode("1"));
+    }
+
+    // ■■ TopController
+
+    @Test
+    void testTop() throws Throwable {
+        assertRequest(0, get("/login"), status().isOk());
+        assertRequest(0, get("/").with(user(admin)), redirectedUrl("/employees"));
+    }
+
+    // ■■ EmployeeController
+
+    @Test
+    void testEmployeeList() throws Throwable {
+        // 更新確認・件数・一覧の3回(従業員の日報は読み込まない)
+        assertRequest(3, get("/employees").with(user(admin)), status().isOk());
+    }
+
+    @Test
+    void testEmployeeListNotModified() throws Throwable {
+        // 変更されていなければ更新確認の1回のみ
+        assertNotModified(1, get("/employees"));
+    }
+
+    @Test
+    void testEmployeeDetail() throws Throwable {
+        assertRequest(1, get("/employees/Q01/").with(user(admin)), status().isOk());
+    }
+
+    @Test
+    void testEmployeeDetailNotModified() throws Throwable {
+        // 従業員はキャッシュ済みのためSQLは実行しない
+        assertNotModified(0, get("/employees/Q01/"));
+    }
+
+    @Test
+    void testEmployeeCreate() throws Throwable {
+        assertRequest(0, get("/employees/add").with(user(admin)), status().isOk());
+    }
+
+    @Test
+    void testEmployeeAdd() throws Throwable {
+        // 重複チェック・保存(merge)時のSELECTとINSERT
+        assertRequest(3, post("/employees/add").param("code", "Q99").param("name", "件数確認")
+                .param("role", "GENERAL").param("password", "password1").with(user(admin)).with(csrf()),
+                redirectedUrl("/employees"));
+    }
+
+    @Test
+    void testEmployeeImport() throws Throwable {
+        StringBuilder csv = new StringBuilder("Code,Name,Role,Password\n");
+        for (int i = 1; i <= EMPLOYEES; i++) {
+            csv.append(String.format("R%02d,件数確認,GENERAL,password1\n", i));
+        }
+        assertRequest(0, get("/employees/import").with(user(admin)), status().isOk());
+        // 社員番号の重複チェックとバッチINSERT
+        assertRequest(3, multipart("/employees/import").file(csvFile(csv)).with(user(admin)).with(csrf()),
+                status().isOk());
+    }
+
+    @Test
+    void testEmployeeUpdate() throws Throwable {
+        assertRequest(1, get("/employees/Q01/update").with(user(admin)), status().isOk());
+        assertRequest(2, post("/employees/Q01/update").param("name", "件数確認").param("role", "ADMIN")
+                .param("password", "").with(user(admin)).with(csrf()), redirectedUrl("/employees"));
+    }
+
+    @Test
+    void testEmployeeDelete() throws Throwable {
+        // 日報の一括論理削除と集計の削除は日報の件数によらない
+        assertRequest(6, post("/employees/Q01/delete").with(user(admin)).with(csrf()),
+                redirectedUrl("/employees"));
+    }
+
+    // ■■ ReportController
+
+    @Test
+    void testReportList() throws Throwable {
+        // 更新確認(日報・従業員)の2回と一覧の1回
+        assertRequest(3, get("/reports").with(user(admin)), status().isOk());
+        assertRequest(3, get("/reports").param("cursorDate", report.getReportDate().toString())
+                .param("cursorId", report.getId().toString()).with(user(admin)), status().isOk());
+    }
+
+    @Test
+    void testReportListFiltered() throws Throwable {
+        // 絞り込みの条件を指定しても同じ件数(更新確認の2回と一覧の1回)
+        assertRequest(3, get("/reports").param("from", "2019-01-01").param("to", "2030-12-31")
+                .param("employeeCode", "1").param("title", "件").with(user(admin)), status().isOk());
+    }
+
+    @Test
+    void testReportListNotModified() throws Throwable {
+        assertNotModified(2, get("/reports"));
+    }
+
+    @Test
+    void testReportSearch() throws Throwable {
+        assertRequest(1, get("/reports/search").param("q", "記載").with(user(admin)), status().isOk());
+    }
+
+    @Test
+    void testReportDetail() throws Throwable {
+        // 更新確認と、日報(従業員も同時に読み込む)の2回
+        assertRequest(2, get("/reports/" + report.getId() + "/").with(user(admin)), status().isOk());
+    }
+
+    @Test
+    void testReportDetailCached() throws Throwable {
+        String path = "/reports/" + report.getId() + "/";
+        mockMvc.perform(get(path).with(user(admin))).andExpect(status().isOk());
+        // 2回目は描画済みの本文を使用するため、更新確認の1回のみ(条件付きGETでなくても日報を読み込まない)
+        assertRequest(1, get(path).with(user(admin)), content().string(containsString(report.getTitle())));
+    }
+
+    @Test
+    void testReportDetailNotModified() throws Throwable {
+        assertNotModified(1, get("/reports/" + report.getId() + "/"));
+    }
+
+    @Test
+    void testReportAdd() throws Throwable {
+        assertRequest(0, get("/reports/add").with(user(admin)), status().isOk());
+        // 採番(シーケンスの割り当て時のみ2回)・INSERT・月別件数の更新
+        assertRequest(4, post("/reports/add").param("reportDate", "2019-06-01").param("title", "件数確認")
+                .param("content", "件数確認の内容").with(user(admin)).with(csrf()), redirectedUrl("/reports"));
+    }
+
+    @Test
+    void testReportUpdate() throws Throwable {
+        String path = "/reports/" + report.getId() + "/update";
+        assertRequest(1, get(path).with(user(admin)), status().isOk());
+        // 日付を別の月に変更するため、月別件数は2回更新する
+        assertRequest(4, post(path).param("reportDate", "2019-06-01").param("title", "件数確認")
+                .param("content", "件数確認の内容").with(user(admin)).with(csrf()), redirectedUrl("/reports"));
+    }
+
+    @Test
+    void testReportDelete() throws Throwable {
+        assertRequest(3, post("/reports/" + report.getId() + "/delete").with(user(admin)).with(csrf()),
+                redirectedUrl("/reports"));
+    }
+
+    @Test
+    void testReportExport() throws Throwable {
+        // 全件を従業員と結合して1回で読み込む
+        assertRequest(1, get("/reports/export/csv").with(user(admin)), status().isOk());
+        assertRequest(1, get("/reports/export/csv").param("from", "2019-01-01").param("employeeCode", "1")
+                .with(user(admin)), status().isOk());
+    }
+
+    @Test
+    void testReportChanges() throws Throwable {
+        // 変更された日報を従業員と結合して1回で読み込む(JSON・CSVとも)
+        assertRequest(1, get("/reports/export/changes").param("size", "100").with(user(admin)), status().isOk());
+        assertRequest(1, get("/reports/export/changes/csv").with(user(admin)), status().isOk());
+    }
+
+    @Test
+    void testReportImport() throws Throwable {
+        // 2人分・1か月分(60件)
+        StringBuilder csv = new StringBuilder("Employee Code,Report Date,Title,Content\n");
+        for (String code : new String[] { "Q01", "Q02" }) {
+            for (int day = 1; day <= 30; day++) {
+                csv.append(code).append(",").append(LocalDate.of(2021, 4, day)).append(",件数確認,件数確認の内容\n");
+            }
+        }
+        assertRequest(0, get("/reports/import").with(user(admin)), status().isOk());
+        // 社員番号・日付の重複チェック、採番、バッチINSERT(50件ずつ)、従業員・月ごとの件数の更新
+        assertRequest(10, multipart("/reports/import").file(csvFile(csv)).with(user(admin)).with(csrf()),
+                status().isOk());
+    }
+
+    // リクエストを実行し、応答を確認したうえで、flushまでに実行されたSQL文の件数を検証する
+    private void assertRequest(int budget, RequestBuilder request, ResultMatcher expected) throws Throwable {
+        assertStatementsAtMost(budget, () -> {
+            mockMvc.perform(request).andExpect(expected);
+            entityManager.flush();
+        });
+    }
+
+    // 1回目の表示で受け取ったETagを送り、304となること(一覧・詳細の取得や描画を行わないこと)を検証する
+    // ETagはセッションごとに異なるため、同じセッションで2回表示する
+    private void assertNotModified(int budget, MockHttpServletRequestBuilder request) throws Throwable {
+        MockHttpSession session = new MockHttpSession();
+        String etag = mockMvc.perform(request.session(session).with(user(admin))).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private")).andReturn()
+                .getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        assertRequest(budget, request.header(HttpHeaders.IF_NONE_MATCH, etag), status().isNotModified());
+    }
+
+    private static MockMultipartFile csvFile(CharSequence csv) {
+        return new MockMultipartFile("file", "import.csv", "text/csv",
+                csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Employee newEmployee(String code, Role role, LocalDateTime now) {
+        Employee employee = new Employee();
+        employee.setCode(code);
+        employee.setName("件数確認");
+        employee.setRole(role);
+        employee.setPassword("");
+        employee.setDeleteFlg(false);
+        employee.setCreatedAt(now);
+        employee.setUpdatedAt(now);
+        return employee;
+    }
+}
@@ -0,0 +1,149 @@
+package com.techacademy.controller;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrlPattern;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.techacademy.repository.ReportFilter;
+import com.techacademy.service.EmployeeService;
+import com.techacademy.service.ReportExportJob;
+import com.techacademy.service.ReportExportJobService;
+import com.techacademy.service.UserDetail;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ExtendWith(SpringExtension.class)
+class ReportExportControllerTest {
+
+    private MockMvc mockMvc;
+
+    private final WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ReportExportJobService reportExportJobService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    // ログインユーザー(ADMIN)
+    private UserDetail admin;
+
+    ReportExportControllerTest(WebApplicationContext context) {
+        this.webApplicationContext = context;
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        // Spring Securityを有効にする
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity()).build();
+        admin = new UserDetail(employeeService.findByCode("1"));
+    }
+
+    // エクスポートの開始 進捗画面へリダイレクトする
+    @Test
+    void testCreate() throws Exception {
+        mockMvc.perform(post("/reports/export/jobs").with(user(admin)).with(csrf()))
+                .andExpect(redirectedUrlPattern("/reports/export/jobs/*"));
+    }
+
+    // 全体のダウンロード
+    @Test
+    void testDownload() throws Exception {
+        ReportExportJob job = exportedJob();
+        String csv = Files.readString(job.getFile());
+
+        mockMvc.perform(get(downloadPath(job)).with(user(admin))).andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, job.getFileSize()))
+                .andExpect(content().string(csv));
+    }
+
+    // 範囲指定のダウンロード(先頭・末尾・範囲外)
+    @Test
+    void testDownloadRange() throws Exception {
+        ReportExportJob job = exportedJob();
+        byte[] file = Files.readAllBytes(job.getFile());
+        long length = file.length;
+
+        mockMvc.perform(get(downloadPath(job)).with(user(admin)).header(HttpHeaders.RANGE, "bytes=0-9"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-9/" + length))
+                .andExpect(content().string("ID,Employe"));
+
+        mockMvc.perform(get(downloadPath(job)).with(user(admin)).header(HttpHeaders.RANGE, "bytes=-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + (length - 5) + "-" + (length - 1) + "/" + length))
+                .andExpect(content().bytes(Arrays.copyOfRange(file, file.length - 5, file.length)));
+
+        mockMvc.perform(get(downloadPath(job)).with(user(admin)).header(HttpHeaders.RANGE, "bytes=" + length + "-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + length));
+
+        // ファイルが変わっている(If-Range が一致しない)場合は全体を返す
+        mockMvc.perform(get(downloadPath(job)).with(user(admin)).header(HttpHeaders.RANGE, "bytes=0-9")
+                .header(HttpHeaders.IF_RANGE, "\"other\"")).andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, length));
+    }
+
+    // 他の従業員のジョブはダウンロードできない
+    @Test
+    void testDownloadOtherEmployeesJob() throws Exception {
+        ReportExportJob job = reportExportJobService.submit("2", false, ReportFilter.EMPTY);
+        awaitFinished(job);
+
+        mockMvc.perform(get(downloadPath(job)).with(user(admin))).andExpect(status().isNotFound());
+    }
+
+    // 差分エクスポート(JSON・CSV) 件数は起動直後の日報が settle-time を過ぎているかによるため確認しない
+    @Test
+    void testChanges() throws Exception {
+        mockMvc.perform(get("/reports/export/changes").param("size", "1").with(user(admin)))
+                .andExpect(status().isOk()).andExpect(jsonPath("$.changes").isArray())
+                .andExpect(jsonPath("$.more").isBoolean()).andExpect(jsonPath("$.until").isString());
+
+        mockMvc.perform(get("/reports/export/changes/csv").with(user(admin))).andExpect(status().isOk())
+                .andExpect(header().exists("X-Changes-Until"));
+    }
+
+    private ReportExportJob exportedJob() throws InterruptedException {
+        ReportExportJob job = reportExportJobService.submit(admin.getCode(), false, ReportFilter.EMPTY);
+        awaitFinished(job);
+        assertTrue(job.isCompleted());
+        return job;
+    }
+
+    private static String downloadPath(ReportExportJob job) {
+        return "/reports/export/jobs/" + job.getId() + "/download";
+    }
+
+    private static void awaitFinished(ReportExportJob job) throws InterruptedException {
+        for (int i = 0; i < 100 && !job.isFinished(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(job.isFinished(), "export did not finish in time");
+    }
+}
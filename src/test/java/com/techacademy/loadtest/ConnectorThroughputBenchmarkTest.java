@@ -0,0 +1,94 @@
+package com.techacademy.loadtest;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.techacademy.DailyReportSystemApplication;
+
+// 仮想スレッドとプラットフォームスレッドのスループット比較(HTTPコネクタ)
+// アプリケーションをそれぞれの設定で起動し、ログイン済みのクライアントから日報一覧へ同時にアクセスする
+// 実行方法: mvn test -Dtest=ConnectorThroughputBenchmarkTest -Dbenchmark=true (MySQLが必要)
+// -Dbenchmark.clients=同時接続数 -Dbenchmark.seconds=計測秒数 -Dloadtest.username/-Dloadtest.password=ログインユーザー
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ConnectorThroughputBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectorThroughputBenchmarkTest.class);
+
+    @Test
+    void compareVirtualAndPlatformThreads() throws Exception {
+        int clients = Integer.getInteger("benchmark.clients", 200);
+        int seconds = Integer.getInteger("benchmark.seconds", 30);
+
+        log.info("mode, clients, requests, errors, throughput (req/s), average latency (ms)");
+        for (boolean virtualThreads : new boolean[] { false, true }) {
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                    DailyReportSystemApplication.class).properties("server.port=0",
+                            "spring.threads.virtual.enabled=" + virtualThreads, "spring.jpa.show-sql=false")
+                    .run()) {
+                int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                run(virtualThreads ? "virtual" : "platform", URI.create("http://localhost:" + port), clients,
+                        seconds);
+            }
+        }
+    }
+
+    private void run(String mode, URI baseUri, int clients, int seconds) throws Exception {
+        String username = System.getProperty("loadtest.username", "1");
+        String password = System.getProperty("loadtest.password", "password");
+
+        // ログインは計測対象外(BCryptの待ち行列を溢れさせないよう順に行う)
+        List<LoadTestSession> sessions = new ArrayList<LoadTestSession>();
+        for (int i = 0; i < clients; i++) {
+            LoadTestSession session = new LoadTestSession(baseUri);
+            session.login(username, password);
+            sessions.add(session);
+        }
+
+        AtomicLong requests = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong totalNanos = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (LoadTestSession session : sessions) {
+            futures.add(executor.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        if (session.get("/reports").statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    totalNanos.addAndGet(System.nanoTime() - start);
+                    requests.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        long count = requests.get();
+        log.info(String.format("%s, %d, %d, %d, %.1f, %.1f", mode, clients, count, errors.get(),
+                (double) count / seconds, count == 0 ? 0.0 : totalNanos.get() / 1_000_000.0 / count));
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.techacademy.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// 負荷試験の操作ごとの応答時間の記録と集計(p50/p99・スループット)
+public class LatencyRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyRecorder.class);
+
+    private final Map<String, Samples> samples = new ConcurrentSkipListMap<String, Samples>();
+
+    public void record(String operation, long nanos, boolean error) {
+        Samples target = samples.computeIfAbsent(operation, name -> new Samples());
+        target.add(nanos);
+        if (error) {
+            target.errors.incrementAndGet();
+        }
+    }
+
+    // 操作ごとの結果をCSV形式でログに出力する
+    public void print(double seconds) {
+        log.info("operation, requests, errors, throughput (req/s), p50 (ms), p99 (ms), max (ms)");
+        long total = 0;
+        long totalErrors = 0;
+        for (Map.Entry<String, Samples> entry : samples.entrySet()) {
+            long[] sorted = entry.getValue().sorted();
+            long errors = entry.getValue().errors.get();
+            total += sorted.length;
+            totalErrors += errors;
+            log.info(String.format("%s, %d, %d, %.1f, %.1f, %.1f, %.1f", entry.getKey(), sorted.length, errors,
+                    sorted.length / seconds, percentile(sorted, 50), percentile(sorted, 99),
+                    sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1_000_000.0));
+        }
+        log.info(String.format("total, %d, %d, %.1f", total, totalErrors, total / seconds));
+    }
+
+    // 最近接順位法によるパーセンタイル(ミリ秒)
+    static double percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / 1_000_000.0;
+    }
+
+    private static class Samples {
+
+        private final AtomicLong errors = new AtomicLong();
+        private long[] values = new long[1024];
+        private int size;
+
+        synchronized void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.techacademy.loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// 負荷試験用のHTTPセッション(ログイン状態をCookieで保持する)
+public class LoadTestSession {
+
+    // フォームに埋め込まれたCSRFトークン
+    private static final Pattern CSRF_PATTERN = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+
+    private final URI baseUri;
+    private final HttpClient client;
+
+    public LoadTestSession(URI baseUri) {
+        this.baseUri = baseUri;
+        this.client = HttpClient.newBuilder().cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER).connectTimeout(Duration.ofSeconds(10)).build();
+    }
+
+    // ログイン(成功時は日報一覧へのリダイレクトとなる)
+    public void login(String username, String password) throws IOException, InterruptedException {
+        String token = csrfToken(get("/login").body());
+        HttpResponse<String> response = post("/login",
+                "username=" + encode(username) + "&password=" + encode(password) + "&_csrf=" + encode(token));
+
+        String location = response.headers().firstValue("Location").orElse("");
+        if (response.statusCode() != 302 || location.contains("/login")) {
+            throw new IllegalStateException("Login failed: " + username + " -> " + location);
+        }
+    }
+
+    public HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path)).timeout(Duration.ofSeconds(60)).GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // 本文を読み捨てる(CSVエクスポートなど大きな応答をメモリに保持しない)
+    public HttpResponse<Void> download(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path)).timeout(Duration.ofSeconds(600)).GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    public HttpResponse<String> post(String path, String form) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path)).timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // フォームを含む画面からCSRFトークンを取り出す
+    public static String csrfToken(String html) {
+        Matcher matcher = CSRF_PATTERN.matcher(html);
+        if (!matcher.find()) {
+            throw new IllegalStateException("CSRF token not found");
+        }
+        return matcher.group(1);
+    }
+
+    public static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
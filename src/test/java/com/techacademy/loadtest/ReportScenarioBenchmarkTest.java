@@ -0,0 +1,214 @@
+package com.techacademy.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import com.techacademy.DailyReportSystemApplication;
+
+// 日報の利用シナリオによる負荷試験(perfプロファイル: 組み込みDBと生成した試験データを使用するためMySQL不要)
+// 各クライアントは別々の従業員でログインし、一覧 → 詳細 → 登録 → 更新 を繰り返す
+// 管理者のクライアントは一定回数ごとにCSVエクスポート、全クライアントが一定回数ごとに再ログインする
+// 実行方法: mvn test -Dtest=ReportScenarioBenchmarkTest -Dbenchmark=true
+// -Dbenchmark.clients=同時接続数 -Dbenchmark.seconds=計測秒数 -Dbenchmark.warmup-seconds=計測前の助走秒数
+// -Dbenchmark.export-every=CSVエクスポートの間隔(回) -Dbenchmark.login-every=再ログインの間隔(回)
+// 試験データの量は -Dperf.data.employees=従業員数 -Dperf.data.reports=日報の件数 (application-perf.properties)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ReportScenarioBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportScenarioBenchmarkTest.class);
+
+    // 一覧の詳細画面へのリンク
+    private static final Pattern REPORT_LINK_PATTERN = Pattern.compile("href=\"/reports/(\\d+)/\"");
+    // 更新画面の日付の入力欄
+    private static final Pattern REPORT_DATE_INPUT_PATTERN = Pattern.compile("<input[^>]*name=\"reportDate\"[^>]*>");
+    private static final Pattern VALUE_PATTERN = Pattern.compile("value=\"([^\"]*)\"");
+
+    private LatencyRecorder recorder;
+    private long measureFrom;
+    private long deadline;
+
+    // 登録する日報の日付(試験データの期間より後の日付を重ならないよう順に使用する)
+    private LocalDate addDateBase;
+    private final AtomicLong addSequence = new AtomicLong();
+
+    @Test
+    void runReportScenario() throws Exception {
+        int clients = Integer.getInteger("benchmark.clients", 50);
+        int seconds = Integer.getInteger("benchmark.seconds", 60);
+        int warmupSeconds = Integer.getInteger("benchmark.warmup-seconds", 10);
+        int exportEvery = Integer.getInteger("benchmark.export-every", 100);
+        int loginEvery = Integer.getInteger("benchmark.login-every", 50);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                DailyReportSystemApplication.class).profiles("perf").properties("server.port=0").run()) {
+            Environment environment = context.getEnvironment();
+            int port = environment.getRequiredProperty("local.server.port", Integer.class);
+            int employees = environment.getRequiredProperty("perf.data.employees", Integer.class);
+            int adminInterval = environment.getRequiredProperty("perf.data.admin-interval", Integer.class);
+            String password = environment.getRequiredProperty("perf.data.password");
+            addDateBase = LocalDate.parse(environment.getRequiredProperty("perf.data.end-date")).plusDays(1);
+            URI baseUri = URI.create("http://localhost:" + port);
+
+            recorder = new LatencyRecorder();
+            measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            deadline = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+
+            ExecutorService executor = Executors.newFixedThreadPool(clients);
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < clients; i++) {
+                int code = i % employees + 1;
+                boolean admin = (code - 1) % adminInterval == 0;
+                futures.add(executor.submit(() -> {
+                    runClient(baseUri, String.valueOf(code), password, admin, exportEvery, loginEvery);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+
+            log.info("clients={}, seconds={}, employees={}, reports={}", clients, seconds, employees,
+                    environment.getProperty("perf.data.reports"));
+            recorder.print(seconds);
+        }
+    }
+
+    private void runClient(URI baseUri, String username, String password, boolean admin, int exportEvery,
+            int loginEvery) throws Exception {
+        LoadTestSession session = login(baseUri, username, password);
+        List<String> reportIds = new ArrayList<String>();
+
+        for (int iteration = 1; System.nanoTime() < deadline; iteration++) {
+            if (session == null || iteration % loginEvery == 0) {
+                session = login(baseUri, username, password);
+                if (session == null) {
+                    continue;
+                }
+            }
+
+            // 一覧(詳細・更新の対象は一覧に表示された日報から選ぶ)
+            HttpResponse<String> list = call("list", session, "/reports", 200);
+            if (list != null) {
+                reportIds.clear();
+                Matcher matcher = REPORT_LINK_PATTERN.matcher(list.body());
+                while (matcher.find()) {
+                    reportIds.add(matcher.group(1));
+                }
+            }
+            if (!reportIds.isEmpty()) {
+                String id = reportIds.get(ThreadLocalRandom.current().nextInt(reportIds.size()));
+                call("detail", session, "/reports/" + id + "/", 200);
+                update(session, id);
+            }
+            add(session);
+
+            if (admin && iteration % exportEvery == 0) {
+                long start = System.nanoTime();
+                boolean error;
+                try {
+                    error = session.download("/reports/export/csv").statusCode() != 200;
+                } catch (Exception e) {
+                    error = true;
+                }
+                record("export", start, error);
+            }
+        }
+    }
+
+    // ログイン(失敗した場合はnull)
+    private LoadTestSession login(URI baseUri, String username, String password) {
+        LoadTestSession session = new LoadTestSession(baseUri);
+        long start = System.nanoTime();
+        try {
+            session.login(username, password);
+            record("login", start, false);
+            return session;
+        } catch (Exception e) {
+            record("login", start, true);
+            return null;
+        }
+    }
+
+    private void add(LoadTestSession session) {
+        HttpResponse<String> form = call("add form", session, "/reports/add", 200);
+        if (form == null) {
+            return;
+        }
+        LocalDate reportDate = addDateBase.plusDays(addSequence.getAndIncrement());
+        post("add", session, "/reports/add", "reportDate=" + reportDate + "&title="
+                + LoadTestSession.encode("負荷試験 " + reportDate) + "&content="
+                + LoadTestSession.encode("負荷試験で登録した日報です。") + "&_csrf="
+                + LoadTestSession.encode(LoadTestSession.csrfToken(form.body())));
+    }
+
+    // 日付は変更せず、タイトルと内容を更新する
+    private void update(LoadTestSession session, String id) {
+        HttpResponse<String> form = call("update form", session, "/reports/" + id + "/update", 200);
+        if (form == null) {
+            return;
+        }
+        Matcher input = REPORT_DATE_INPUT_PATTERN.matcher(form.body());
+        Matcher value = input.find() ? VALUE_PATTERN.matcher(input.group()) : null;
+        if (value == null || !value.find()) {
+            record("update", System.nanoTime(), true);
+            return;
+        }
+        post("update", session, "/reports/" + id + "/update", "reportDate=" + value.group(1) + "&title="
+                + LoadTestSession.encode("負荷試験で更新 " + id) + "&content="
+                + LoadTestSession.encode("負荷試験で更新した日報です。") + "&_csrf="
+                + LoadTestSession.encode(LoadTestSession.csrfToken(form.body())));
+    }
+
+    // GETし、期待したステータスでなければエラーとして記録する(エラーの場合はnull)
+    private HttpResponse<String> call(String operation, LoadTestSession session, String path, int expectedStatus) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = session.get(path);
+            boolean error = response.statusCode() != expectedStatus;
+            record(operation, start, error);
+            return error ? null : response;
+        } catch (Exception e) {
+            record(operation, start, true);
+            return null;
+        }
+    }
+
+    // 登録・更新(成功時は一覧へのリダイレクト、入力エラー時は画面の再表示となる)
+    private void post(String operation, LoadTestSession session, String path, String form) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = session.post(path, form);
+            record(operation, start, response.statusCode() != 302);
+        } catch (Exception e) {
+            record(operation, start, true);
+        }
+    }
+
+    // 助走中・計測終了後の結果は記録しない
+    private void record(String operation, long start, boolean error) {
+        long end = System.nanoTime();
+        if (start >= measureFrom && end <= deadline) {
+            recorder.record(operation, end - start, error);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.techacademy.repository;
+
+import static com.techacademy.SqlStatementRecorder.recordStatements;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.techacademy.QueryCountConfiguration;
+import com.techacademy.SqlStatementRecorder.RecordedStatement;
+
+// 日報一覧の絞り込みで生成されるSQLの実行計画(EXPLAIN)が、条件に対応する複合インデックスを使用できることを確認する
+// テストデータは数件のため、オプティマイザが実際に選ぶインデックス(key)ではなく候補(possible_keys)を確認する
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@Import(QueryCountConfiguration.class)
+class ReportRepositoryExplainTest {
+
+    private static final LocalDate FROM = LocalDate.of(2019, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2030, 12, 31);
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 日付の範囲 → (delete_flg, report_date)
+    @Test
+    void testDateRangeUsesDeleteFlgReportDateIndex() throws Throwable {
+        ReportFilter filter = new ReportFilter(FROM, TO, null, null);
+
+        assertPossibleKey("idx_reports_delete_flg_report_date",
+                () -> reportRepository.findPageByFilter(filter, null, null, false, 10));
+        assertPossibleKey("idx_reports_delete_flg_report_date",
+                () -> reportRepository.findPageByFilter(filter, TO, Integer.MAX_VALUE, false, 10));
+    }
+
+    // 社員番号と日付の範囲 → (employee_code, report_date)
+    @Test
+    void testEmployeeCodeUsesEmployeeCodeReportDateIndex() throws Throwable {
+        ReportFilter filter = new ReportFilter(FROM, TO, "1", "件");
+
+        assertPossibleKey("uk_reports_employee_code_report_date",
+                () -> reportRepository.findPageByFilter(filter, null, null, false, 10));
+        assertPossibleKey("uk_reports_employee_code_report_date", () -> reportRepository.countByFilter(filter));
+    }
+
+    // 処理中に実行されたSQLをそれぞれEXPLAINし、日報テーブルのインデックスの候補に index が含まれることを検証する
+    private void assertPossibleKey(String index, Executable executable) throws Throwable {
+        List<RecordedStatement> statements = recordStatements(executable);
+        assertEquals(statements.size(), 1);
+
+        RecordedStatement statement = statements.get(0);
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + statement.getSql(),
+                statement.getParameters().toArray());
+        assertTrue(plan.stream().anyMatch(row -> String.valueOf(row.get("possible_keys")).contains(index)),
+                statement.getSql() + " -> " + plan);
+    }
+}
@@ -0,0 +1,64 @@
+package com.techacademy.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.techacademy.entity.Employee;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+class EmployeeImportServiceTest {
+
+    @Autowired
+    private EmployeeImportService service;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    // 正しい行のみ登録し、エラー行は行番号付きで返す(テスト後にロールバック)
+    @Test
+    @WithMockUser
+    @Transactional
+    void testImportCsv() throws Exception {
+        // 論理削除された従業員の社員番号も重複とする
+        employeeService.delete("2", new UserDetail(employeeService.findByCode("1")));
+
+        String csv = "Code,Name,Role,Password\n"
+                + "10,山田　花子,GENERAL,password10\n" // 2行目: 登録
+                + "11,佐藤　次郎,管理者,password11\n" // 3行目: 登録
+                + "10,重複　太郎,GENERAL,password12\n" // 4行目: ファイル内で重複
+                + "1,登録済　太郎,GENERAL,password13\n" // 5行目: 登録済みの社員番号
+                + "2,削除済　太郎,GENERAL,password14\n" // 6行目: 論理削除済みの社員番号
+                + "12,権限　太郎,MANAGER,password15\n" // 7行目: 権限
+                + "13,短い　太郎,GENERAL,short\n" // 8行目: パスワードの桁数
+                + "14,全角　太郎,GENERAL,ぱすわーどぱすわーど\n"; // 9行目: パスワードの半角英数字
+
+        CsvImportResult result = service.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(result.getImportedCount(), 2);
+        assertEquals(result.getErrorCount(), 6);
+        for (String line : new String[] { "4行目", "5行目", "6行目", "7行目", "8行目", "9行目" }) {
+            assertTrue(result.getErrors().stream().anyMatch(e -> e.startsWith(line)), line);
+        }
+
+        // パスワードはハッシュ化して登録される
+        Employee employee = employeeService.findByCode("11");
+        assertEquals(employee.getName(), "佐藤　次郎");
+        assertEquals(employee.getRole(), Employee.Role.ADMIN);
+        assertTrue(passwordEncoder.matches("password11", employee.getPassword()));
+    }
+}
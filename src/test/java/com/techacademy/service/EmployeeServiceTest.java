@@ -2,17 +2,29 @@ package com.techacademy.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.techacademy.constants.ErrorKinds;
 import com.techacademy.entity.Employee;
 import com.techacademy.entity.Employee.Role;
+import com.techacademy.entity.Report;
+import com.techacademy.repository.EmployeeRepository;
+import com.techacademy.repository.ReportRepository;
 
 @SpringBootTest
 @ExtendWith(SpringExtension.class)
@@ -21,6 +33,21 @@ class EmployeeServiceTest {
     @Autowired
     private EmployeeService service;
 
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Test
     @WithMockUser
     void testFindAll() {
@@ -62,4 +89,86 @@ class EmployeeServiceTest {
 
     }
 
+    @Test
+    @WithMockUser
+    void testFindByCodeCached() {
+        cacheManager.getCache(EmployeeRepository.CACHE_NAME).clear();
+
+        // 2回目以降はキャッシュから同じ内容が返る(呼び出しごとに別のインスタンスのため、変更しても影響しない)
+        Employee employee = service.findByCode("1");
+        employee.setName("変更　太郎");
+        Employee cached = service.findByCode("1");
+        assertEquals(cached.getCode(), "1");
+        assertEquals(cached.getName(), "煌木　太郎");
+        assertEquals(cached.getRole(), Role.ADMIN);
+        assertNotNull(cacheManager.getCache(EmployeeRepository.CACHE_NAME).get("1"));
+
+        // 取得できなかった場合はキャッシュしない
+        assertNull(service.findByCode("100"));
+        assertNull(service.findByCode("100"));
+        assertNull(cacheManager.getCache(EmployeeRepository.CACHE_NAME).get("100"));
+    }
+
+    // 更新時のキャッシュの破棄はコミット後のみ(ロールバックした場合は破棄しない)
+    @Test
+    @WithMockUser
+    void testCacheEvictedAfterCommit() {
+        Cache cache = cacheManager.getCache(EmployeeRepository.CACHE_NAME);
+        String password = service.findByCode("1").getPassword();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            service.updateEncodedPassword("1", password);
+            status.setRollbackOnly();
+        });
+        assertNotNull(cache.get("1"));
+
+        transaction.executeWithoutResult(status -> {
+            service.updateEncodedPassword("1", password);
+            // コミット前はキャッシュに残る
+            assertNotNull(cache.get("1"));
+        });
+        assertNull(cache.get("1"));
+    }
+
+    // 日報がチャンクサイズを超える従業員の削除 チャンクごとにコミットした後、残りと従業員をまとめて削除する
+    // (チャンクはコミットされるため、他のテストに影響しない専用の従業員・日付で行う)
+    @Test
+    @WithMockUser
+    void testDeleteInChunks() {
+        LocalDateTime now = LocalDateTime.now();
+        Employee employee = new Employee();
+        employee.setCode("C01");
+        employee.setName("削除　太郎");
+        employee.setRole(Role.GENERAL);
+        employee.setPassword("$2a$10$HPIjRCymeRZKEIq.71TDduiEotOlb8Ai6KQUHCs4lGNYlLhcKv4Wi");
+        employee.setDeleteFlg(false);
+        employee.setCreatedAt(now);
+        employee.setUpdatedAt(now);
+        employee = employeeRepository.save(employee);
+        for (int day = 1; day <= 5; day++) {
+            Report report = new Report();
+            report.setEmployee(employee);
+            report.setReportDate(LocalDate.of(2002, 1, day));
+            report.setTitle("削除テスト");
+            report.setContent("削除テスト");
+            report.setDeleteFlg(false);
+            report.setCreatedAt(now);
+            report.setUpdatedAt(now);
+            reportRepository.save(report);
+        }
+
+        ReportService target = AopTestUtils.getTargetObject(reportService);
+        Object chunkSize = ReflectionTestUtils.getField(target, "deleteChunkSize");
+        ReflectionTestUtils.setField(target, "deleteChunkSize", 2);
+        try {
+            assertEquals(service.delete("C01", new UserDetail(service.findByCode("1"))), ErrorKinds.SUCCESS);
+        } finally {
+            ReflectionTestUtils.setField(target, "deleteChunkSize", chunkSize);
+        }
+
+        assertNull(service.findByCode("C01"));
+        assertEquals(reportRepository.countByEmployeeCodeAndDeleteFlgFalse("C01"), 0);
+    }
+
 }
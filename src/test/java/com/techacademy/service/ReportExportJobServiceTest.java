@@ -0,0 +1,107 @@
+package com.techacademy.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.techacademy.repository.ReportFilter;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+class ReportExportJobServiceTest {
+
+    @Autowired
+    private ReportExportJobService service;
+
+    @Autowired
+    private ReportService reportService;
+
+    // バックグラウンドで全件を書き出し、完了後にファイルが配置される
+    @Test
+    void testExport() throws Exception {
+        ReportExportJob job = service.submit("1", false, ReportFilter.EMPTY);
+        assertNotNull(job);
+        awaitFinished(job);
+
+        assertTrue(job.isCompleted());
+        assertEquals(job.getRowsWritten(), reportService.countReports(ReportFilter.EMPTY));
+        assertEquals(job.getTotalRows(), job.getRowsWritten());
+        assertEquals(job.getProgressPercent(), 100);
+        assertEquals(job.getFileSize(), Files.size(job.getFile()));
+        assertTrue(Files.readString(job.getFile()).startsWith("ID,Employee,Report Date,Title,Content"));
+    }
+
+    // gzip圧縮したファイルを展開すると同じCSVとなる
+    @Test
+    void testExportGzip() throws Exception {
+        ReportExportJob job = service.submit("1", true, ReportFilter.EMPTY);
+        assertNotNull(job);
+        awaitFinished(job);
+
+        assertTrue(job.isCompleted());
+        assertEquals(job.getFileName(), "reports.csv.gz");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(job.getFile()))) {
+            assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8)
+                    .startsWith("ID,Employee,Report Date,Title,Content"));
+        }
+    }
+
+    // 依頼した本人以外はジョブを参照できない
+    @Test
+    void testFindJobOfOtherEmployee() throws Exception {
+        ReportExportJob job = service.submit("1", false, ReportFilter.EMPTY);
+        assertNotNull(job);
+        awaitFinished(job);
+
+        assertSame(service.findJob(job.getId(), "1"), job);
+        assertNull(service.findJob(job.getId(), "2"));
+        assertNull(service.findJob("unknown", "1"));
+    }
+
+    // 保持期間を過ぎた再起動前のジョブのファイルだけを削除し、スプールディレクトリ内の他のファイルは残す
+    @Test
+    void testRemoveOrphanedFiles() throws Exception {
+        ReportExportJob job = service.submit("1", false, ReportFilter.EMPTY);
+        assertNotNull(job);
+        awaitFinished(job);
+
+        Path spoolDir = job.getFile().getParent();
+        FileTime expired = FileTime.from(Instant.now().minus(Duration.ofDays(1)));
+        Path orphaned = Files.writeString(spoolDir.resolve(UUID.randomUUID() + ".csv.gz.part"), "");
+        Path other = Files.writeString(spoolDir.resolve("notes.old.txt"), "");
+        Files.setLastModifiedTime(orphaned, expired);
+        Files.setLastModifiedTime(other, expired);
+        Files.setLastModifiedTime(job.getFile(), expired);
+        try {
+            service.removeExpiredJobs();
+
+            assertFalse(Files.exists(orphaned));
+            assertTrue(Files.exists(other));
+            // メモリ上にジョブがあるファイルはジョブの完了から保持期間が過ぎるまで削除しない
+            assertTrue(Files.exists(job.getFile()));
+        } finally {
+            Files.deleteIfExists(other);
+        }
+    }
+
+    private static void awaitFinished(ReportExportJob job) throws InterruptedException {
+        for (int i = 0; i < 100 && !job.isFinished(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(job.isFinished(), "export did not finish in time");
+    }
+}
@@ -0,0 +1,63 @@
+package com.techacademy.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+class ReportImportServiceTest {
+
+    @Autowired
+    private ReportImportService service;
+
+    // 正しい行のみ登録し、エラー行は行番号付きで返す(テスト後にロールバック)
+    @Test
+    @WithMockUser
+    @Transactional
+    void testImportCsv() throws Exception {
+        String csv = "\uFEFFEmployee Code,Report Date,Title,Content\n"
+                + "1,2001-01-01,インポート1,内容1\n" // 2行目: 登録
+                + "2,2001-01-01,インポート2,内容2\n" // 3行目: 登録
+                + "1,2001-01-01,インポート3,内容3\n" // 4行目: ファイル内で重複
+                + "2," + LocalDate.now() + ",インポート4,内容4\n" // 5行目: 登録済みの日報と重複
+                + "999,2001-01-02,インポート5,内容5\n" // 6行目: 存在しない社員番号
+                + "1,2001-01-03,,内容6\n" // 7行目: タイトル空白
+                + "1,2001/01/04,インポート7,内容7\n"; // 8行目: 日付の形式
+
+        CsvImportResult result = service
+                .importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(result.getImportedCount(), 2);
+        assertEquals(result.getErrorCount(), 5);
+        assertTrue(result.getErrors().get(0).startsWith("7行目"));
+        assertTrue(result.getErrors().stream().anyMatch(e -> e.startsWith("4行目")));
+        assertTrue(result.getErrors().stream().anyMatch(e -> e.startsWith("5行目")));
+        assertTrue(result.getErrors().stream().anyMatch(e -> e.startsWith("6行目")));
+        assertFalse(result.isErrorsTruncated());
+    }
+
+    // ヘッダーが正しくない場合は登録しない
+    @Test
+    @WithMockUser
+    @Transactional
+    void testImportCsvWithoutHeader() throws Exception {
+        String csv = "1,2001-01-01,インポート1,内容1\n";
+
+        CsvImportResult result = service
+                .importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(result.getImportedCount(), 0);
+        assertEquals(result.getErrorCount(), 1);
+    }
+}
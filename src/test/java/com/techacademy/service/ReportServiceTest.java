@@ -0,0 +1,273 @@
+package com.techacademy.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.techacademy.constants.ErrorKinds;
+import com.techacademy.entity.Employee;
+import com.techacademy.entity.Employee.Role;
+import com.techacademy.entity.Report;
+import com.techacademy.repository.EmployeeRepository;
+import com.techacademy.repository.ReportChange;
+import com.techacademy.repository.ReportFilter;
+import com.techacademy.repository.ReportListItem;
+import com.techacademy.repository.ReportRepository;
+
+// 差分エクスポートは直前の変更も取得できるよう、確定待ちの時間をなくす
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@TestPropertySource(properties = "reports.changes.settle-time=0s")
+class ReportServiceTest {
+
+    @Autowired
+    private ReportService service;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ReportRepository reportRepository;
+
+    // 日報一覧のキーセットページング(ADMIN)
+    @Test
+    @WithMockUser
+    void testGetReportPageForUser() {
+        UserDetail admin = new UserDetail(employeeService.findByCode("1"));
+
+        // 先頭ページ(2件ずつ)
+        ReportPage firstPage = service.getReportPageForUser(admin, null, null, false, 2);
+        assertEquals(firstPage.getReports().size(), 2);
+        assertFalse(firstPage.hasPrevious());
+        assertTrue(firstPage.hasNext());
+
+        // 次のページ(残り1件)
+        ReportListItem last = firstPage.getLast();
+        ReportPage nextPage = service.getReportPageForUser(admin, last.getReportDate(), last.getId(), false, 2);
+        assertEquals(nextPage.getReports().size(), 1);
+        assertTrue(nextPage.hasPrevious());
+        assertFalse(nextPage.hasNext());
+
+        // 前のページに戻ると先頭ページと同じ内容になる
+        ReportListItem first = nextPage.getFirst();
+        ReportPage previousPage = service.getReportPageForUser(admin, first.getReportDate(), first.getId(), true, 2);
+        assertEquals(previousPage.getReports().size(), 2);
+        assertEquals(previousPage.getFirst().getId(), firstPage.getFirst().getId());
+        assertEquals(previousPage.getLast().getId(), firstPage.getLast().getId());
+        assertFalse(previousPage.hasPrevious());
+        assertTrue(previousPage.hasNext());
+    }
+
+    // 日報一覧のキーセットページング(GENERALは自分の日報のみ)
+    @Test
+    @WithMockUser
+    void testGetReportPageForGeneralUser() {
+        UserDetail general = new UserDetail(employeeService.findByCode("2"));
+
+        ReportPage page = service.getReportPageForUser(general, null, null, false, 20);
+        assertEquals(page.getReports().size(), 2);
+        assertTrue(page.getReports().stream().allMatch(r -> "田中　太郎".equals(r.getEmployeeName())));
+        assertFalse(page.hasPrevious());
+        assertFalse(page.hasNext());
+    }
+
+    // 日報の全文検索(ADMINは全ての日報、GENERALは自分の日報のみ)
+    @Test
+    @WithMockUser
+    void testSearchReports() {
+        UserDetail admin = new UserDetail(employeeService.findByCode("1"));
+        UserDetail general = new UserDetail(employeeService.findByCode("2"));
+
+        assertEquals(service.searchReports(admin, "記載", null).getReports().size(), 3);
+        assertEquals(service.searchReports(general, "記載", null).getReports().size(), 2);
+
+        // 空白(全角)で区切った語はすべて含むもののみ
+        ReportSearchResult result = service.searchReports(admin, "田中　タタタ", null);
+        assertEquals(result.getTotalHits(), 1);
+        assertEquals(result.getReports().get(0).getEmployeeName(), "田中　太郎");
+
+        // 1文字での検索
+        assertEquals(service.searchReports(admin, "煌", null).getReports().size(), 1);
+        // 他の従業員の日報は検索できない
+        assertTrue(service.searchReports(general, "煌木", null).getReports().isEmpty());
+    }
+
+    // 同一従業員・同一日付の日報は一意制約により登録できない
+    @Test
+    @WithMockUser
+    void testSaveDuplicateReportDate() {
+        UserDetail admin = new UserDetail(employeeService.findByCode("1"));
+
+        Report report = new Report();
+        report.setReportDate(LocalDate.now());
+        report.setTitle("重複テスト");
+        report.setContent("重複テスト");
+
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> service.save(report, admin));
+        assertTrue(ReportService.isDuplicateReportDate(e));
+    }
+
+    // 日付の重複以外の制約違反(存在しない従業員の日報)は日付の重複として扱わない
+    @Test
+    @WithMockUser
+    void testSaveOtherConstraintViolation() {
+        Employee employee = new Employee();
+        employee.setCode("X99");
+        employee.setName("存在　しない");
+        employee.setRole(Role.GENERAL);
+        employee.setPassword("");
+        UserDetail missing = new UserDetail(employee);
+
+        Report report = new Report();
+        report.setReportDate(LocalDate.now());
+        report.setTitle("外部キーテスト");
+        report.setContent("外部キーテスト");
+
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> service.save(report, missing));
+        assertFalse(ReportService.isDuplicateReportDate(e));
+    }
+
+    // 差分エクスポート (更新日時, ID) の順に、論理削除された日報も含めて取得する(テスト後にロールバック)
+    @Test
+    @Transactional
+    void testGetChanges() {
+        Employee employee = employeeService.findByCode("2");
+        LocalDateTime updatedAt = LocalDateTime.of(2001, 1, 1, 10, 0);
+        Report first = saveReport(employee, LocalDate.of(2001, 1, 1), updatedAt, false);
+        Report second = saveReport(employee, LocalDate.of(2001, 1, 2), updatedAt, false);
+        Report deleted = saveReport(employee, LocalDate.of(2001, 1, 3), updatedAt.plusDays(1), true);
+
+        // 更新日時が同じ日報はID順
+        ReportChangePage page = service.getChanges(LocalDateTime.of(2000, 12, 31, 0, 0), null, 2);
+        assertEquals(page.getChanges().size(), 2);
+        assertEquals(page.getChanges().get(0).getId(), first.getId());
+        assertEquals(page.getChanges().get(1).getId(), second.getId());
+        assertTrue(page.isMore());
+
+        // 続きのページ(カーソルと同じ更新日時の日報は含まない)
+        ReportChangePage nextPage = service.getChanges(page.getNextSince(), page.getNextCursorId(), 1);
+        ReportChange change = nextPage.getChanges().get(0);
+        assertEquals(change.getId(), deleted.getId());
+        assertTrue(change.isDeleteFlg());
+        assertEquals(change.getEmployeeCode(), "2");
+
+        // 起点のみの指定では、起点の更新日時より後の日報
+        ReportChangePage afterUpdatedAt = service.getChanges(updatedAt, null, 1);
+        assertEquals(afterUpdatedAt.getChanges().get(0).getId(), deleted.getId());
+    }
+
+    // 差分エクスポート 従業員を削除すると、その従業員の日報も論理削除として取得できる(テスト後にロールバック)
+    @Test
+    @Transactional
+    void testGetChangesOfDeletedEmployee() {
+        LocalDateTime now = LocalDateTime.now();
+        Employee employee = new Employee();
+        employee.setCode("C24");
+        employee.setName("差分　太郎");
+        employee.setRole(Role.GENERAL);
+        employee.setPassword("$2a$10$HPIjRCymeRZKEIq.71TDduiEotOlb8Ai6KQUHCs4lGNYlLhcKv4Wi");
+        employee.setDeleteFlg(false);
+        employee.setCreatedAt(now);
+        employee.setUpdatedAt(now);
+        employee = employeeRepository.save(employee);
+        Report first = saveReport(employee, LocalDate.of(2001, 1, 1), now, false);
+        Report second = saveReport(employee, LocalDate.of(2001, 1, 2), now, false);
+
+        assertEquals(employeeService.delete("C24", new UserDetail(employeeService.findByCode("1"))),
+                ErrorKinds.SUCCESS);
+        assertNull(employeeService.findByCode("C24"));
+
+        // 他のテストで更新された日報も含まれるため、削除した従業員の日報だけを確認する
+        List<ReportChange> changes = service.getChanges(LocalDateTime.of(2000, 1, 1, 0, 0), null, 5000).getChanges()
+                .stream().filter(change -> "C24".equals(change.getEmployeeCode())).collect(Collectors.toList());
+
+        assertEquals(changes.size(), 2);
+        assertEquals(changes.get(0).getId(), first.getId());
+        assertEquals(changes.get(1).getId(), second.getId());
+        for (ReportChange change : changes) {
+            assertTrue(change.isDeleteFlg());
+            assertEquals(change.getEmployeeCode(), "C24");
+            assertEquals(change.getEmployeeName(), "差分　太郎");
+        }
+    }
+
+    // 日報一覧の絞り込み(日付の範囲・社員番号・タイトルの前方一致)(テスト後にロールバック)
+    @Test
+    @WithMockUser
+    @Transactional
+    void testGetReportPageWithFilter() {
+        Employee admin = employeeService.findByCode("1");
+        Employee general = employeeService.findByCode("2");
+        LocalDateTime updatedAt = LocalDateTime.of(2001, 1, 1, 10, 0);
+        saveReport(general, LocalDate.of(2001, 1, 1), updatedAt, false);
+        Report latest = saveReport(general, LocalDate.of(2001, 1, 2), updatedAt, false);
+        saveReport(admin, LocalDate.of(2001, 1, 2), updatedAt, false);
+        saveReport(general, LocalDate.of(2001, 1, 3), updatedAt, true);
+        saveReport(general, LocalDate.of(2001, 2, 1), updatedAt, false);
+        UserDetail adminUser = new UserDetail(admin);
+        UserDetail generalUser = new UserDetail(general);
+        LocalDate from = LocalDate.of(2001, 1, 1);
+        LocalDate to = LocalDate.of(2001, 1, 31);
+
+        // 日付の範囲(論理削除された日報は含まない) 2件ずつのページ移動でも条件を保つ
+        ReportFilter january = new ReportFilter(from, to, null, null);
+        ReportPage firstPage = service.getReportPageForUser(adminUser, january, null, null, false, 2);
+        assertEquals(firstPage.getReports().size(), 2);
+        assertTrue(firstPage.hasNext());
+        ReportListItem last = firstPage.getLast();
+        ReportPage nextPage = service.getReportPageForUser(adminUser, january, last.getReportDate(), last.getId(),
+                false, 2);
+        assertEquals(nextPage.getReports().size(), 1);
+        assertEquals(nextPage.getFirst().getReportDate(), from);
+        assertFalse(nextPage.hasNext());
+        assertEquals(service.countReports(january), 3);
+
+        // 社員番号
+        ReportPage byEmployee = service.getReportPageForUser(adminUser, new ReportFilter(from, to, "2", null), null,
+                null, false, 20);
+        assertEquals(byEmployee.getReports().size(), 2);
+        assertEquals(byEmployee.getFirst().getId(), latest.getId());
+
+        // GENERALは他の従業員の社員番号を指定しても自分の日報のみ
+        ReportPage other = service.getReportPageForUser(generalUser, new ReportFilter(from, to, "1", null), null,
+                null, false, 20);
+        assertEquals(other.getReports().size(), 2);
+        assertTrue(other.getReports().stream().allMatch(r -> "田中　太郎".equals(r.getEmployeeName())));
+
+        // タイトルの前方一致(ワイルドカードの文字はそのまま比較する)
+        assertEquals(service.getReportPageForUser(adminUser, new ReportFilter(from, to, null, "差分"), null, null,
+                false, 20).getReports().size(), 3);
+        assertTrue(service.getReportPageForUser(adminUser, new ReportFilter(from, to, null, "差_"), null, null,
+                false, 20).getReports().isEmpty());
+    }
+
+    private Report saveReport(Employee employee, LocalDate reportDate, LocalDateTime updatedAt, boolean deleted) {
+        Report report = new Report();
+        report.setEmployee(employee);
+        report.setReportDate(reportDate);
+        report.setTitle("差分テスト");
+        report.setContent("差分テスト");
+        report.setDeleteFlg(deleted);
+        report.setCreatedAt(updatedAt);
+        report.setUpdatedAt(updatedAt);
+        return reportRepository.saveAndFlush(report);
+    }
+}
@@ -0,0 +1,105 @@
+package com.techacademy.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.techacademy.entity.Report;
+import com.techacademy.repository.EmployeeMonthlyCount;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+class ReportStatsServiceTest {
+
+    @Autowired
+    private ReportStatsService service;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    // 日報の登録・日付の変更・削除に合わせて月別件数が増減する(テスト後にロールバック)
+    @Test
+    @WithMockUser
+    @Transactional
+    void testMonthlyCountFollowsReportChanges() {
+        UserDetail admin = new UserDetail(employeeService.findByCode("1"));
+        YearMonth january = YearMonth.of(2000, 1);
+        YearMonth february = YearMonth.of(2000, 2);
+
+        Report report = new Report();
+        report.setReportDate(january.atDay(10));
+        report.setTitle("集計テスト");
+        report.setContent("集計テスト");
+        reportService.save(report, admin);
+        assertEquals(countOf(january, "1"), 1);
+
+        // 同じ月の中で日付を変更しても件数は変わらない
+        Report sameMonth = new Report();
+        sameMonth.setReportDate(january.atDay(20));
+        sameMonth.setTitle("集計テスト");
+        sameMonth.setContent("集計テスト");
+        reportService.updateReport(report.getId(), sameMonth);
+        assertEquals(countOf(january, "1"), 1);
+
+        // 月をまたいで日付を変更すると件数が移る
+        Report nextMonth = new Report();
+        nextMonth.setReportDate(february.atDay(1));
+        nextMonth.setTitle("集計テスト");
+        nextMonth.setContent("集計テスト");
+        reportService.updateReport(report.getId(), nextMonth);
+        assertEquals(countOf(january, "1"), 0);
+        assertEquals(countOf(february, "1"), 1);
+
+        // 削除すると件数が減る(二重に削除しても減らない)
+        Report other = new Report();
+        other.setReportDate(february.atDay(2));
+        other.setTitle("集計テスト");
+        other.setContent("集計テスト");
+        reportService.save(other, admin);
+        assertEquals(countOf(february, "1"), 2);
+        reportService.delete(report.getId(), admin);
+        reportService.delete(report.getId(), admin);
+        assertEquals(countOf(february, "1"), 1);
+        assertTrue(reportService.findById(report.getId()).isDeleteFlg());
+    }
+
+    // 集計のやり直し後も日報がない従業員は0件として表示される
+    @Test
+    @WithMockUser
+    @Transactional
+    void testRebuild() {
+        service.rebuild();
+
+        ReportMonthlySummary summary = service.getMonthlySummary(YearMonth.of(2000, 1));
+        assertEquals(summary.getCounts().size(), 2);
+        assertEquals(summary.getTotalCount(), 0);
+    }
+
+    // 提出されているべき件数(平日の日数)
+    @Test
+    void testExpectedReportCount() {
+        // 2024年1月は平日が23日
+        assertEquals(ReportStatsService.expectedReportCount(YearMonth.of(2024, 1), LocalDate.of(2024, 3, 1)), 23);
+        // 月の途中の場合は本日まで(1/1(月)～1/7(日)の平日は5日)
+        assertEquals(ReportStatsService.expectedReportCount(YearMonth.of(2024, 1), LocalDate.of(2024, 1, 7)), 5);
+        // 未来の月は0件
+        assertEquals(ReportStatsService.expectedReportCount(YearMonth.of(2024, 2), LocalDate.of(2024, 1, 31)), 0);
+    }
+
+    private int countOf(YearMonth month, String employeeCode) {
+        return service.getMonthlySummary(month).getCounts().stream().filter(c -> employeeCode.equals(c.getCode()))
+                .mapToInt(EmployeeMonthlyCount::getReportCount).findFirst().orElse(-1);
+    }
+}